@@ -0,0 +1,115 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Account-level hot paths: deposit and both withdraw implementations, uncontended (every thread has
+// its own account) and contended (all threads share one), plus the insufficient-funds rejection path.
+// Balances start high enough that the withdrawal benchmarks never run out of money.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountBenchmark {
+
+    private static final double LARGE_BALANCE = 1e13;
+
+    @State(Scope.Thread)
+    public static class OwnAccounts {
+        SavingsAccount savings;
+        CheckingAccount checking;
+        SavingsAccount empty;
+
+        @Setup(Level.Trial)
+        public void open() {
+            Bank bank = new Bank();
+            Customer owner = bank.addCustomer("Benchmark");
+            savings = (SavingsAccount) bank.openSavingsAccount(owner, LARGE_BALANCE, 0.01);
+            checking = (CheckingAccount) bank.openCheckingAccount(owner, LARGE_BALANCE, 100.0);
+            empty = (SavingsAccount) bank.openSavingsAccount(owner, 0.0, 0.01);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedAccounts {
+        SavingsAccount savings;
+        CheckingAccount checking;
+
+        @Setup(Level.Trial)
+        public void open() {
+            Bank bank = new Bank();
+            Customer owner = bank.addCustomer("Benchmark");
+            savings = (SavingsAccount) bank.openSavingsAccount(owner, LARGE_BALANCE, 0.01);
+            checking = (CheckingAccount) bank.openCheckingAccount(owner, LARGE_BALANCE, 100.0);
+        }
+    }
+
+    @Benchmark
+    public void deposit(OwnAccounts accounts) {
+        accounts.checking.deposit(1.0);
+    }
+
+    @Benchmark
+    public void savingsWithdraw(OwnAccounts accounts) throws InsufficientFundsException {
+        accounts.savings.withdraw(1.0);
+    }
+
+    @Benchmark
+    public void checkingWithdraw(OwnAccounts accounts) throws InsufficientFundsException {
+        accounts.checking.withdraw(1.0);
+    }
+
+    // Every call is declined, so this measures the cost of building and throwing the exception
+    @Benchmark
+    public Object withdrawRejected(OwnAccounts accounts) {
+        try {
+            accounts.empty.withdraw(1.0);
+            return null;
+        } catch (InsufficientFundsException e) {
+            return e;
+        }
+    }
+
+    // The non-throwing form of the same declined withdrawal
+    @Benchmark
+    public DebitResult tryWithdrawRejected(OwnAccounts accounts) {
+        return accounts.empty.tryWithdraw(1.0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void depositUncontended(OwnAccounts accounts) {
+        accounts.checking.deposit(1.0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void depositContended(SharedAccounts accounts) {
+        accounts.checking.deposit(1.0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void withdrawUncontended(OwnAccounts accounts) throws InsufficientFundsException {
+        accounts.savings.withdraw(1.0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void withdrawContended(SharedAccounts accounts) throws InsufficientFundsException {
+        accounts.savings.withdraw(1.0);
+    }
+}
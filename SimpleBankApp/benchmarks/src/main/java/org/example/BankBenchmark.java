@@ -0,0 +1,98 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Bank-level hot paths over banks of different sizes and storage engines: account lookups (hits and misses,
+// single-threaded and in parallel) and account opening.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankBenchmark {
+
+    private static final int CUSTOMERS_PER_ACCOUNT = 4; // One customer for every four accounts
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int accounts;
+
+    @Param({"HEAP", "COLUMNAR"})
+    AccountStorage storage;
+
+    Bank bank;
+    Customer[] customers;
+    String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        bank = new Bank(EventSink.NO_OP, Metrics.NO_OP, storage);
+        customers = new Customer[Math.max(1, accounts / CUSTOMERS_PER_ACCOUNT)];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = bank.addCustomer("Customer " + i);
+        }
+        accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            Customer owner = customers[i % customers.length];
+            Account account = i % 2 == 0
+                    ? bank.openSavingsAccount(owner, 100.0, 0.01)
+                    : bank.openCheckingAccount(owner, 100.0, 50.0);
+            accountNumbers[i] = account.getAccountNumber();
+        }
+    }
+
+    // Walks the accounts with a large prime stride, so consecutive lookups hit unrelated entries
+    @State(Scope.Thread)
+    public static class Cursor {
+        private static final int STRIDE = 1_000_003;
+        int next;
+
+        int next(int bound) {
+            next = (int) ((next + (long) STRIDE) % bound);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Optional<Account> findAccountHit(Cursor cursor) {
+        return bank.findAccount(accountNumbers[cursor.next(accounts)]);
+    }
+
+    @Benchmark
+    public Optional<Account> findAccountMiss() {
+        return bank.findAccount("no-such-account");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Account> findAccountHitParallel(Cursor cursor) {
+        return bank.findAccount(accountNumbers[cursor.next(accounts)]);
+    }
+
+    // The bank grows by one account per invocation, so this also measures index growth
+    @Benchmark
+    public Account openCheckingAccount(Cursor cursor) {
+        return bank.openCheckingAccount(customers[cursor.next(customers.length)], 100.0, 50.0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Account openCheckingAccountParallel(Cursor cursor) {
+        return bank.openCheckingAccount(customers[cursor.next(customers.length)], 100.0, 50.0);
+    }
+}
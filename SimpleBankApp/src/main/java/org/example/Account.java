@@ -1,14 +1,37 @@
 package org.example;
 
-import java.util.Objects;
-import java.util.concurrent.atomic.AtomicLong; // For unique account numbers
+import java.util.Comparator;
+import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class Account {
-    private static final AtomicLong accountNumberGenerator = new AtomicLong(1000); // Start account numbers from 1000
+    private static final IdAllocator accountNumbers = new IdAllocator(1000); // Start account numbers from 1000
 
-    protected final String accountNumber;
+    // Order in which several account locks must be taken, so multi-account operations can't deadlock.
+    // Views of a columnar store share striped locks, so they are ordered by stripe first; accounts on
+    // the same stripe share one (reentrant) lock, so their relative order doesn't matter.
+    static final Comparator<Account> LOCK_ORDER = Comparator.comparingInt((Account account) -> account.lockRank)
+            .thenComparingLong(Account::getNumber);
+
+    protected final long number;
+    private String accountNumber; // String form of number, made on first use; a race only makes it twice
     protected final Customer owner;
-    protected double balance;
+    protected final ReentrantLock lock; // Guards balance updates on this account only
+    protected EventSink events = EventSink.NO_OP; // Replaced by the bank when the account is opened
+    protected Journal journal; // Set by a journaling bank; null when state only lives in memory
+    protected Metrics metrics = Metrics.NO_OP; // Replaced by the bank when the account is opened
+    Versions versions = Versions.NONE; // Replaced by the bank when the account is opened
+    Aggregates aggregates = Aggregates.NONE; // Replaced by the bank when the account is opened
+    BalanceIndex balanceIndex = BalanceIndex.NONE; // Replaced by the bank when the account is opened
+    ChangeFeed changeFeed = ChangeFeed.NONE; // Replaced by the bank when the account is opened
+
+    // State of an account that holds it itself. Views of a ColumnarAccountStore keep it in their row
+    // of columns instead; always go through getBalanceMinor/setBalance and the journal position methods.
+    private volatile long balance; // In minor units (see Money); volatile so reads don't need the lock
+    private long lastJournalPosition; // End of the latest journal record for this account; guarded by lock
+    private long changeSequence; // Balance changes so far, numbering the change feed's events; guarded by lock
+    final AccountColumns columns; // Null unless this is a view
+    final int row;
+    private final int lockRank;
 
     public Account(Customer owner, double initialDeposit) {
         if (owner == null) {
@@ -17,13 +40,49 @@ public abstract class Account {
         if (initialDeposit < 0) {
             throw new IllegalArgumentException("Initial deposit cannot be negative.");
         }
-        this.accountNumber = String.valueOf(accountNumberGenerator.getAndIncrement());
+        this.number = accountNumbers.next();
+        this.owner = owner;
+        this.balance = Money.toMinor(initialDeposit);
+        this.lock = new ReentrantLock();
+        this.columns = null;
+        this.row = 0;
+        this.lockRank = 0;
+    }
+
+    // Restores an account from a journal or snapshot, keeping its original number
+    Account(long number, Customer owner, long balanceMinor) {
+        this.number = number;
         this.owner = owner;
-        this.balance = initialDeposit;
+        this.balance = balanceMinor;
+        this.lock = new ReentrantLock();
+        this.columns = null;
+        this.row = 0;
+        this.lockRank = 0;
+        accountNumbers.reserve(number); // New accounts must not reuse restored numbers
+    }
+
+    // A view of one row of a ColumnarAccountStore, sharing one of the store's striped locks
+    Account(AccountColumns columns, int row, Customer owner, ReentrantLock lock, int lockRank) {
+        this.number = columns.numbers[row];
+        this.owner = owner;
+        this.lock = lock;
+        this.columns = columns;
+        this.row = row;
+        this.lockRank = lockRank;
     }
 
     public String getAccountNumber() {
-        return accountNumber;
+        String formatted = accountNumber;
+        if (formatted == null) {
+            formatted = Long.toString(number);
+            accountNumber = formatted;
+        }
+        return formatted;
+    }
+
+    // The account number itself; getAccountNumber is its string form
+    public long getNumber() {
+        return number;
     }
 
     public Customer getOwner() {
@@ -31,40 +90,252 @@ public abstract class Account {
     }
 
     public double getBalance() {
-        return balance;
+        return Money.toMajor(getBalanceMinor());
+    }
+
+    public long getBalanceMinor() {
+        return columns == null ? balance : columns.balances.get(row);
+    }
+
+    // What could be withdrawn right now: the balance plus any overdraft still unused
+    public double getAvailableFunds() {
+        return Money.toMajor(getAvailableFundsMinor());
+    }
+
+    public long getAvailableFundsMinor() {
+        return getBalanceMinor() - floorBalance();
     }
 
     public void deposit(double amount) {
-        if (amount <= 0) {
+        applyDeposit(toPositiveMinor(amount, "Deposit amount must be positive."));
+    }
+
+    // Exact, allocation-free variant of deposit for callers that already work in minor units
+    public void depositMinor(long amountMinor) {
+        if (amountMinor <= 0) {
             throw new IllegalArgumentException("Deposit amount must be positive.");
         }
-        this.balance += amount;
-        System.out.println("Deposited: " + amount + ". New balance: " + this.balance); // Simple logging
+        applyDeposit(amountMinor);
     }
 
     // Abstract method - must be implemented by subclasses
     public abstract void withdraw(double amount) throws InsufficientFundsException;
 
+    // Exact, allocation-free variant of withdraw for callers that already work in minor units
+    public void withdrawMinor(long amountMinor) throws InsufficientFundsException {
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be positive.");
+        }
+        applyWithdrawal(amountMinor);
+    }
+
+    // Non-throwing withdraw for callers where declines are routine: returns a declined result instead of
+    // throwing, and changes nothing. The result says what could have been withdrawn instead.
+    public DebitResult tryWithdraw(double amount) {
+        return tryWithdrawMinor(toPositiveMinor(amount, "Withdrawal amount must be positive."));
+    }
+
+    public DebitResult tryWithdrawMinor(long amountMinor) {
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be positive.");
+        }
+        long start = metrics.startTime();
+        long journalPosition;
+        lock.lock();
+        try {
+            versions.beforeWrite(this);
+            if (!canDebit(amountMinor)) {
+                metrics.rejected(Operation.WITHDRAWAL, start);
+                return DebitResult.insufficientFunds(getAvailableFundsMinor());
+            }
+            journalPosition = withdrawn(amountMinor);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(journalPosition);
+        metrics.completed(Operation.WITHDRAWAL, start);
+        return DebitResult.APPROVED;
+    }
+
+    // Takes the lock and credits a validated amount. Returns the new balance.
+    long applyDeposit(long amountMinor) {
+        long start = metrics.startTime();
+        long newBalance;
+        long journalPosition;
+        lock.lock();
+        try {
+            versions.beforeWrite(this);
+            newBalance = Math.addExact(getBalanceMinor(), amountMinor); // Checked before anything is journaled
+            // Write-ahead: if the journal can't take the record, this throws and the balance never moves
+            journalPosition = journal == null ? 0 : journaled(journal.logDeposit(getAccountNumber(), amountMinor));
+            setBalance(newBalance);
+            events.publish(EventType.DEPOSIT, getAccountNumber(), amountMinor, newBalance); // Under the lock, so events follow balance order
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(journalPosition); // Outside the lock, so others can join the same group commit
+        metrics.completed(Operation.DEPOSIT, start);
+        return newBalance;
+    }
+
+    // Takes the lock and debits a validated amount. Returns the new balance.
+    long applyWithdrawal(long amountMinor) throws InsufficientFundsException {
+        long start = metrics.startTime();
+        long newBalance;
+        long journalPosition;
+        lock.lock();
+        try {
+            versions.beforeWrite(this);
+            try {
+                checkDebit(amountMinor);
+            } catch (InsufficientFundsException e) {
+                metrics.rejected(Operation.WITHDRAWAL, start);
+                throw e;
+            }
+            journalPosition = withdrawn(amountMinor);
+            newBalance = getBalanceMinor();
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(journalPosition);
+        metrics.completed(Operation.WITHDRAWAL, start);
+        return newBalance;
+    }
+
+    // Journals, applies and publishes a debit the account's rules allow; caller holds the lock.
+    // Returns the journal position to wait for, or 0 without a journal.
+    private long withdrawn(long amountMinor) {
+        long journalPosition = journal == null ? 0 : journaled(journal.logWithdrawal(getAccountNumber(), amountMinor));
+        applyDebit(amountMinor);
+        events.publish(EventType.WITHDRAWAL, getAccountNumber(), amountMinor, getBalanceMinor());
+        return journalPosition;
+    }
+
+    // Called by the bank before the account is shared with other threads
+    void attach(EventSink events, Journal journal, Metrics metrics, Versions versions, Aggregates aggregates,
+                BalanceIndex balanceIndex, ChangeFeed changeFeed) {
+        this.events = events;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.versions = versions;
+        this.aggregates = aggregates;
+        this.balanceIndex = balanceIndex;
+        this.changeFeed = changeFeed;
+    }
+
+    // Remembers the journal record just appended for this account, so snapshots know what they include.
+    // Caller must hold the lock. Returns the position for convenience.
+    long journaled(long journalPosition) {
+        if (columns == null) {
+            lastJournalPosition = journalPosition;
+        } else {
+            columns.journalPositions[row] = journalPosition;
+        }
+        return journalPosition;
+    }
+
+    // Caller must hold the lock, or own the account before it is shared
+    long getLastJournalPosition() {
+        return columns == null ? lastJournalPosition : columns.journalPositions[row];
+    }
+
+    // Waits for a journal record appended by this account; a no-op without a journal
+    void awaitDurable(long journalPosition) {
+        if (journalPosition > 0) {
+            journal.awaitDurable(journalPosition);
+        }
+    }
+
+    // Adds an already validated amount; caller must hold the lock. Returns the new balance.
+    // Live changes are journaled first (checkCredit makes sure this can't throw after that); replay calls it directly.
+    long credit(long amountMinor) {
+        long newBalance = Math.addExact(getBalanceMinor(), amountMinor);
+        setBalance(newBalance);
+        return newBalance;
+    }
+
+    // Caller must hold the lock. Every balance change goes through here, so it keeps the aggregates in step.
+    private void setBalance(long balanceMinor) {
+        long oldBalance;
+        if (columns == null) {
+            oldBalance = balance;
+            balance = balanceMinor;
+        } else {
+            oldBalance = columns.balances.get(row);
+            columns.balances.set(row, balanceMinor);
+        }
+        aggregates.changed(this, oldBalance, balanceMinor);
+        balanceIndex.changed(this, oldBalance, balanceMinor);
+        long sequence;
+        if (columns == null) {
+            sequence = ++changeSequence;
+        } else {
+            sequence = ++columns.changeSequences[row];
+        }
+        changeFeed.changed(this, balanceMinor - oldBalance, balanceMinor, sequence);
+    }
+
+    // Throws if crediting amountMinor would overflow, before the credit is journaled; caller must hold the lock
+    final void checkCredit(long amountMinor) {
+        Math.addExact(getBalanceMinor(), amountMinor);
+    }
+
+    // Throws if the account's rules don't allow removing an already validated amount; changes nothing.
+    // Caller must hold the lock. Shared by withdraw and Bank.transfer so both enforce the same rules.
+    final void checkDebit(long amountMinor) throws InsufficientFundsException {
+        if (!canDebit(amountMinor)) {
+            throw new InsufficientFundsException(this, getBalanceMinor() - floorBalance(), amountMinor);
+        }
+    }
+
+    // Message for a declined debit; only built when an InsufficientFundsException's message is read
+    abstract String insufficientFundsMessage(long availableMinor, long requestedMinor);
+
+    // Lowest balance the account's rules allow a debit to leave behind
+    abstract long floorBalance();
+
+    // Non-throwing form of checkDebit for paths where rejections are routine; caller must hold the lock
+    final boolean canDebit(long amountMinor) {
+        return getBalanceMinor() - amountMinor >= floorBalance();
+    }
+
+    // Removes an amount canDebit allowed, once it is journaled; caller must hold the lock
+    final void applyDebit(long amountMinor) {
+        setBalance(getBalanceMinor() - amountMinor);
+    }
+
+    // Converts a caller-supplied amount, rejecting anything that isn't at least one minor unit
+    static long toPositiveMinor(double amount, String message) {
+        if (!(amount > 0)) {
+            throw new IllegalArgumentException(message);
+        }
+        long amountMinor = Money.toMinor(amount);
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException(message);
+        }
+        return amountMinor;
+    }
+
     // Common equals/hashCode based on account number
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Account account = (Account) o;
-        return Objects.equals(accountNumber, account.accountNumber);
+        return number == account.number;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(accountNumber);
+        return Long.hashCode(number);
     }
 
     @Override
     public String toString() {
         return "Account{" +
-                "accountNumber='" + accountNumber + '\'' +
+                "accountNumber='" + getAccountNumber() + '\'' +
                 ", owner=" + owner.getName() + // Don't print owner object directly to avoid recursion if owner holds accounts
-                ", balance=" + balance +
+                ", balance=" + Money.toMajor(getBalanceMinor()) +
                 '}';
     }
-}
\ No newline at end of file
+}
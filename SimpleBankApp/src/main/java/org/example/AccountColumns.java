@@ -0,0 +1,35 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// One page of a ColumnarAccountStore: the state of PAGE_SIZE accounts, one primitive array per field.
+// A row is written once when its account is added; after that only the balance (volatile, like
+// Account's own field) and the journal position, interest run id and change sequence (guarded by the
+// account's lock) change. Account views keep a reference to their page and row, so they reach their state directly.
+final class AccountColumns {
+    static final int PAGE_BITS = 14;
+    static final int PAGE_SIZE = 1 << PAGE_BITS;
+    static final int ROW_MASK = PAGE_SIZE - 1;
+
+    static final byte SAVINGS = 1;
+    static final byte CHECKING = 2;
+
+    final int pageIndex;
+    final long[] numbers = new long[PAGE_SIZE];
+    final byte[] kinds = new byte[PAGE_SIZE];
+    final long[] terms = new long[PAGE_SIZE]; // Interest rate (millionths) or overdraft limit (minor units)
+    final int[] owners = new int[PAGE_SIZE]; // Customer slot in the store
+    final int[] nextOfOwner = new int[PAGE_SIZE]; // Slot of the owner's next account, or -1
+    final AtomicLongArray balances = new AtomicLongArray(PAGE_SIZE);
+    final long[] journalPositions = new long[PAGE_SIZE];
+    final long[] interestRunIds = new long[PAGE_SIZE];
+    final long[] changeSequences = new long[PAGE_SIZE];
+
+    AccountColumns(int pageIndex) {
+        this.pageIndex = pageIndex;
+    }
+
+    int slot(int row) {
+        return (pageIndex << PAGE_BITS) | row;
+    }
+}
@@ -0,0 +1,10 @@
+package org.example;
+
+// How a Bank keeps its accounts
+public enum AccountStorage {
+    // One heap object per account; the simplest and the default
+    HEAP,
+    // Primitive columns with Accounts handed out as short-lived views: several times less memory per
+    // account and cache-friendly scans, for banks with tens of millions of accounts
+    COLUMNAR
+}
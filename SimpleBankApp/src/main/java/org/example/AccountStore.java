@@ -0,0 +1,26 @@
+package org.example;
+
+import java.util.List;
+
+// Where a Bank keeps its accounts and their indexes. All methods are safe to call from many threads.
+interface AccountStore {
+
+    // Registers an account that isn't shared yet and returns the instance to hand out from now on:
+    // the account itself, or a view of the state copied from it. Account numbers must be unique.
+    Account add(Account account);
+
+    // Null if there is no such account
+    Account find(long number);
+
+    // True if the account was handed out by this store (not just one with the same number)
+    boolean contains(Account account);
+
+    // The owner's accounts in the order they were opened; a copy
+    List<Account> accountsOf(Customer owner);
+
+    // Every account, weakly consistent with concurrent additions
+    Iterable<Account> accounts();
+
+    // Every savings account at the time of the call, for an interest run
+    List<SavingsAccount> savingsAccounts();
+}
@@ -0,0 +1,86 @@
+package org.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Bank-wide totals kept up to date on every balance change and account opening, so dashboards read them
+// in O(1) instead of scanning every account. Each total is a LongAdder, which spreads concurrent updates
+// over per-thread cells instead of having every writer hit one counter. A customer's net worth lives on
+// the Customer itself, so updating it needs no lookup; its accounts rarely change at once, so it rarely
+// contends.
+//
+// Totals are updated under each account's lock but read without any, so while writers are active a read
+// may include part of a transfer (e.g. the debit but not the credit). For totals that agree with each
+// other exactly, scan a BankView instead.
+public final class Aggregates {
+    static final Aggregates NONE = new Aggregates(); // For accounts outside any bank; updates nothing
+
+    private final LongAdder deposits = new LongAdder(); // Sum of positive balances
+    private final LongAdder overdrawn = new LongAdder(); // Sum of negative balances, as a positive amount
+    private final LongAdder overdraftLimits = new LongAdder(); // Sum of checking overdraft limits
+
+    Aggregates() {
+    }
+
+    // Money the bank holds for customers: the sum of every positive balance
+    public double getTotalDeposits() {
+        return Money.toMajor(getTotalDepositsMinor());
+    }
+
+    public long getTotalDepositsMinor() {
+        return deposits.sum();
+    }
+
+    // Money customers owe the bank: the sum of every overdrawn checking balance, as a positive amount
+    public double getOverdraftExposure() {
+        return Money.toMajor(getOverdraftExposureMinor());
+    }
+
+    public long getOverdraftExposureMinor() {
+        return overdrawn.sum();
+    }
+
+    // Overdraft granted across all checking accounts, the most the exposure could reach
+    public double getTotalOverdraftLimit() {
+        return Money.toMajor(getTotalOverdraftLimitMinor());
+    }
+
+    public long getTotalOverdraftLimitMinor() {
+        return overdraftLimits.sum();
+    }
+
+    // Sum of the customer's balances, overdrafts included. Use Bank.getNetWorth, which checks the
+    // customer belongs to the bank.
+    long getNetWorthMinor(Customer customer) {
+        return customer.netWorth.sum();
+    }
+
+    // Adds a newly registered account, before it is shared
+    void opened(Account account) {
+        if (this == NONE) {
+            return;
+        }
+        long balance = account.getBalanceMinor();
+        account.getOwner().netWorth.add(balance);
+        deposits.add(Math.max(balance, 0));
+        overdrawn.add(Math.max(-balance, 0));
+        if (account instanceof CheckingAccount) {
+            overdraftLimits.add(((CheckingAccount) account).getOverdraftLimitMinor());
+        }
+    }
+
+    // Caller holds the account's lock and has just changed its balance
+    void changed(Account account, long oldBalance, long newBalance) {
+        if (this == NONE) {
+            return;
+        }
+        long change = newBalance - oldBalance;
+        account.getOwner().netWorth.add(change);
+        long depositsChange = Math.max(newBalance, 0) - Math.max(oldBalance, 0);
+        if (depositsChange != 0) {
+            deposits.add(depositsChange);
+        }
+        if (depositsChange != change) { // Only when the balance was or is now negative
+            overdrawn.add(depositsChange - change);
+        }
+    }
+}
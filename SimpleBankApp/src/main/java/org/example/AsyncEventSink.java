@@ -0,0 +1,142 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// EventSink that hands events to a background writer thread through a bounded, lock-free ring.
+// Slots are pre-allocated as parallel arrays, so publishing is a CAS plus a few array stores.
+// Each slot carries a sequence number telling producers and the drainer whose turn it is.
+public class AsyncEventSink implements EventSink, AutoCloseable {
+
+    // What publish does when the ring is full
+    public enum OverflowPolicy {
+        DROP,  // Discard the event and count it
+        BLOCK  // Wait for the writer to free a slot
+    }
+
+    private static final long IDLE_PARK_NANOS = 100_000; // Writer poll interval when the ring is empty
+    private static final long FULL_PARK_NANOS = 10_000;  // Producer back-off when blocked on a full ring
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final EventType[] types;
+    private final String[] subjects;
+    private final long[] amounts;
+    private final long[] balances;
+
+    private final AtomicLong tail = new AtomicLong(); // Next position producers will claim
+    private long head; // Next position to drain; only touched by the writer thread
+
+    private final OverflowPolicy overflowPolicy;
+    private final EventWriter writer;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread drainer;
+    private volatile boolean closed;
+
+    public AsyncEventSink(int capacity, OverflowPolicy overflowPolicy, EventWriter writer) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two.");
+        }
+        if (overflowPolicy == null || writer == null) {
+            throw new IllegalArgumentException("Overflow policy and writer are required.");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.types = new EventType[capacity];
+        this.subjects = new String[capacity];
+        this.amounts = new long[capacity];
+        this.balances = new long[capacity];
+        this.overflowPolicy = overflowPolicy;
+        this.writer = writer;
+        this.drainer = new Thread(this::drainLoop, "bank-event-writer");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    @Override
+    public void publish(EventType type, String subject, long amountMinor, long balanceMinor) {
+        long position;
+        while (true) {
+            if (closed) {
+                dropped.increment();
+                return;
+            }
+            position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break; // Slot claimed
+                }
+            } else if (difference < 0) { // Ring is full
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+            // Otherwise another producer claimed this position first; retry with the new tail
+        }
+        int index = (int) position & mask;
+        types[index] = type;
+        subjects[index] = subject;
+        amounts[index] = amountMinor;
+        balances[index] = balanceMinor;
+        sequences.set(index, position + 1); // Publishes the slot to the writer
+    }
+
+    // Number of events discarded because the ring was full, the writer failed, or the sink was closed
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // Stops accepting events, writes everything already published, and waits for the writer to finish
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        LockSupport.unpark(drainer);
+        drainer.join();
+    }
+
+    private void drainLoop() {
+        while (!closed || head != tail.get()) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private int drain() {
+        int drained = 0;
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break; // Nothing (more) published yet
+            }
+            try {
+                writer.write(types[index], subjects[index], amounts[index], balances[index]);
+            } catch (RuntimeException e) {
+                dropped.increment(); // A failing writer must not stall producers
+            }
+            subjects[index] = null; // Don't keep strings reachable from drained slots
+            sequences.set(index, head + capacity); // Hands the slot back to producers
+            head++;
+            drained++;
+        }
+        if (drained > 0) {
+            try {
+                writer.flush();
+            } catch (RuntimeException ignored) {
+                // Same as above: keep draining
+            }
+        }
+        return drained;
+    }
+}
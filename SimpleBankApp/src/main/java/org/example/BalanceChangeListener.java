@@ -0,0 +1,12 @@
+package org.example;
+
+// Receives the balance changes of a Bank.subscribe subscription, on the subscription's own thread.
+// Changes come in batches of whatever was published since the last one; endOfBatch marks the last
+// change of each, the moment to flush or commit whatever the listener buffers.
+//
+// sequence numbers each account's changes 1, 2, 3... since it was opened or loaded in this process, so
+// a listener can spot events a DROP subscription discarded.
+@FunctionalInterface
+public interface BalanceChangeListener {
+    void onBalanceChange(long accountNumber, long deltaMinor, long balanceMinor, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,150 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.ObjLongConsumer;
+
+// Accounts ordered by balance, and checking accounts by headroom (how far they are from their overdraft
+// limit: the balance plus the limit), so risk scans such as "below 100" or "within 50 of the limit" walk
+// only the accounts they return. Both orders are concurrent skip lists, updated under each account's lock
+// as its balance changes, so writers to different accounts don't wait for each other, and scans never
+// block writers.
+//
+// Nothing is indexed until Bank.getBalanceIndex is first called, and until then a balance change only
+// checks a flag. From then on every change also moves the account's entries, a removal and an insertion
+// per order; that is a few skip list searches, so it costs more than the change itself (microseconds
+// rather than nanoseconds, more once the lists outgrow the CPU caches). Banks without risk scans never pay it.
+//
+// Scans read the index while writers change it, so an account whose balance changes during a scan may be
+// reported at its old balance, its new one, or (briefly both are indexed, so it is never missed) both.
+// Each account is reported with the value it was found under.
+public final class BalanceIndex {
+    static final BalanceIndex NONE = new BalanceIndex(); // For accounts outside any bank; never enabled
+
+    private final ConcurrentSkipListSet<Entry> byBalance = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<Entry> byHeadroom = new ConcurrentSkipListSet<>(); // Checking accounts only
+    private volatile boolean enabled;
+
+    // An account at a value; ordered by value, then account number so every account has one place
+    private static final class Entry implements Comparable<Entry> {
+        final long value;
+        final long number;
+        final Account account; // Null in the bounds of a range
+
+        Entry(long value, long number, Account account) {
+            this.value = value;
+            this.number = number;
+            this.account = account;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byValue = Long.compare(value, other.value);
+            return byValue != 0 ? byValue : Long.compare(number, other.number);
+        }
+    }
+
+    BalanceIndex() {
+    }
+
+    // Accounts whose balance is at least fromMinor and below toMinor, lowest balance first
+    public void forEachBalanceBetweenMinor(long fromMinor, long toMinor, ObjLongConsumer<Account> action) {
+        forEachBetween(byBalance, fromMinor, toMinor, action);
+    }
+
+    // Accounts whose balance is below the given one, lowest first, each once
+    public List<Account> getAccountsWithBalanceBelow(double balance) {
+        List<Account> result = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        forEachBalanceBetweenMinor(Long.MIN_VALUE, Money.toMinor(balance), (account, balanceMinor) -> {
+            if (seen.add(account.getNumber())) {
+                result.add(account);
+            }
+        });
+        return result;
+    }
+
+    // Checking accounts whose headroom (balance plus overdraft limit) is at least fromMinor and below
+    // toMinor, least headroom first
+    public void forEachHeadroomBetweenMinor(long fromMinor, long toMinor, ObjLongConsumer<CheckingAccount> action) {
+        forEachBetween(byHeadroom, fromMinor, toMinor, (account, headroom) -> action.accept((CheckingAccount) account, headroom));
+    }
+
+    // Checking accounts no more than distance away from their overdraft limit, closest first, each once
+    public List<CheckingAccount> getCheckingAccountsNearOverdraftLimit(double distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("Distance cannot be negative.");
+        }
+        List<CheckingAccount> result = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        forEachHeadroomBetweenMinor(Long.MIN_VALUE, Money.toMinor(distance) + 1, (account, headroom) -> {
+            if (seen.add(account.getNumber())) {
+                result.add(account);
+            }
+        });
+        return result;
+    }
+
+    private static void forEachBetween(ConcurrentSkipListSet<Entry> entries, long fromMinor, long toMinor,
+                                       ObjLongConsumer<Account> action) {
+        if (fromMinor >= toMinor) {
+            return;
+        }
+        Entry from = new Entry(fromMinor, Long.MIN_VALUE, null);
+        Entry to = new Entry(toMinor, Long.MIN_VALUE, null);
+        for (Entry entry : entries.subSet(from, to)) { // Weakly consistent: never throws as writers move entries
+            action.accept(entry.account, entry.value);
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    // Indexes every account and starts following balance changes. The bank holds the registration lock
+    // exclusively, so no account is opened meanwhile; each account's lock keeps its writers either before
+    // (and unindexed) or after (and indexing themselves).
+    void enable(Iterable<Account> accounts) {
+        if (enabled) {
+            return;
+        }
+        enabled = true;
+        for (Account account : accounts) {
+            account.lock.lock();
+            try {
+                add(account, account.getBalanceMinor());
+            } finally {
+                account.lock.unlock();
+            }
+        }
+    }
+
+    // Adds a newly registered account, before it is shared
+    void opened(Account account) {
+        if (enabled) {
+            add(account, account.getBalanceMinor());
+        }
+    }
+
+    // Caller holds the account's lock and has just changed its balance
+    void changed(Account account, long oldBalance, long newBalance) {
+        if (!enabled || oldBalance == newBalance) {
+            return;
+        }
+        add(account, newBalance); // Before the removal, so a scan can't miss the account in between
+        byBalance.remove(new Entry(oldBalance, account.getNumber(), null));
+        if (account instanceof CheckingAccount) {
+            byHeadroom.remove(new Entry(oldBalance + ((CheckingAccount) account).getOverdraftLimitMinor(), account.getNumber(), null));
+        }
+    }
+
+    private void add(Account account, long balance) {
+        byBalance.add(new Entry(balance, account.getNumber(), account));
+        if (account instanceof CheckingAccount) {
+            byHeadroom.add(new Entry(balance + ((CheckingAccount) account).getOverdraftLimitMinor(), account.getNumber(), account));
+        }
+    }
+}
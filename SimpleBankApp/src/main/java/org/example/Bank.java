@@ -1,82 +1,798 @@
 package org.example;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional; // Good practice for methods that might not find something
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class Bank {
-    private final List<Customer> customers;
-    private final List<Account> accounts;
+    // applyBatch locks at most this many operations' accounts at a time, bounding how long others wait
+    private static final int BATCH_CHUNK_SIZE = 256;
+    private static final int DEFAULT_FEED_CAPACITY = 1 << 16; // Changes a subscriber may fall behind by
+
+    // Concurrent registries: safe to use from many request threads without a bank-wide lock.
+    // Balance changes are guarded per account (see Account), so different accounts never contend.
+    private final Map<Customer, Customer> customers; // A Customer equals any other with the same id, so it is its own key
+    private final AccountStore accounts;
+    private final EventSink events;
+    private final Journal journal; // Null when state only lives in memory
+    private final Metrics metrics;
+    private final Versions versions = new Versions(); // Lets openView see a consistent cut without blocking writers
+    private final Aggregates aggregates = new Aggregates();
+    private final BalanceIndex balanceIndex = new BalanceIndex();
+    private final ChangeFeed changeFeed = new ChangeFeed();
+    private final NameIndex nameIndex = new NameIndex();
+    private final IdempotencyCache idempotencyCache = new IdempotencyCache();
+    // Held shared while a new customer or account is journaled and made visible, and exclusively while a
+    // snapshot picks its journal position, a view is opened or the balance index is built, so each new entry
+    // is either in the snapshot or replayed after it, each new account is either in the view or marked as
+    // opened after it, and either indexed by the build or added to the index as it opens
+    private final ReadWriteLock registrationLock = new ReentrantReadWriteLock();
 
     public Bank() {
-        this.customers = new ArrayList<>();
-        this.accounts = new ArrayList<>();
+        this(EventSink.NO_OP);
+    }
+
+    public Bank(EventSink events) {
+        this(events, Metrics.NO_OP);
+    }
+
+    // Pass a MetricsRegistry to collect operation counts and latencies
+    public Bank(EventSink events, Metrics metrics) {
+        this(events, metrics, AccountStorage.HEAP);
+    }
+
+    public Bank(EventSink events, Metrics metrics, AccountStorage storage) {
+        this(events, metrics, storage, null);
+    }
+
+    private Bank(EventSink events, Metrics metrics, AccountStorage storage, Journal journal) {
+        if (events == null) {
+            throw new IllegalArgumentException("Event sink cannot be null.");
+        }
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null.");
+        }
+        if (storage == null) {
+            throw new IllegalArgumentException("Account storage cannot be null.");
+        }
+        this.events = events;
+        this.metrics = metrics;
+        this.journal = journal;
+        this.customers = new ConcurrentHashMap<>();
+        this.accounts = storage == AccountStorage.COLUMNAR
+                ? new ColumnarAccountStore(events, journal, metrics, versions, aggregates, balanceIndex, changeFeed)
+                : new HeapAccountStore(events, journal, metrics, versions, aggregates, balanceIndex, changeFeed);
+    }
+
+    // Rebuilds a bank from its journal and keeps journaling every change to it from then on.
+    // An empty (new) journal gives an empty bank.
+    public static Bank recover(Journal journal) throws IOException {
+        return recover(journal, null, EventSink.NO_OP);
+    }
+
+    public static Bank recover(Journal journal, EventSink events) throws IOException {
+        return recover(journal, null, events);
+    }
+
+    // Same, but starts from a snapshot (if the file exists) and only replays the journal after it
+    public static Bank recover(Journal journal, Path snapshot) throws IOException {
+        return recover(journal, snapshot, EventSink.NO_OP);
+    }
+
+    public static Bank recover(Journal journal, Path snapshot, EventSink events) throws IOException {
+        return recover(journal, snapshot, events, Metrics.NO_OP);
+    }
+
+    public static Bank recover(Journal journal, Path snapshot, EventSink events, Metrics metrics) throws IOException {
+        return recover(journal, snapshot, events, metrics, AccountStorage.HEAP);
+    }
+
+    public static Bank recover(Journal journal, Path snapshot, EventSink events, Metrics metrics, AccountStorage storage) throws IOException {
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal cannot be null.");
+        }
+        Bank bank = new Bank(events, metrics, storage, journal);
+        long journalPosition = 0;
+        if (snapshot != null && Files.exists(snapshot)) {
+            journalPosition = bank.load(snapshot);
+        }
+        journal.replay(bank.new Replay(), journalPosition);
+        return bank;
+    }
+
+    // An in-memory bank holding exactly what the snapshot holds
+    public static Bank fromSnapshot(Path snapshot) throws IOException {
+        return fromSnapshot(snapshot, AccountStorage.HEAP);
+    }
+
+    public static Bank fromSnapshot(Path snapshot, AccountStorage storage) throws IOException {
+        Bank bank = new Bank(EventSink.NO_OP, Metrics.NO_OP, storage, null);
+        bank.load(snapshot);
+        return bank;
+    }
+
+    // Writes a point-in-time snapshot of every customer and account without pausing other threads:
+    // each account is read under its own lock, one at a time. The file is replaced atomically, and
+    // only after every journal record it reflects is durable, so it never runs ahead of the journal.
+    // Call it periodically (e.g. from a ScheduledExecutorService) to keep recovery time short.
+    public void writeSnapshot(Path file) throws IOException {
+        long journalPosition = 0;
+        if (journal != null) {
+            registrationLock.writeLock().lock();
+            try {
+                journalPosition = journal.getAppendedPosition();
+            } finally {
+                registrationLock.writeLock().unlock();
+            }
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        BankSnapshot.write(temporary, journalPosition, accounts.accounts(), customers.values());
+        if (journal != null) {
+            journal.awaitDurable(journal.getAppendedPosition());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     public Customer addCustomer(String name) {
+        long start = metrics.startTime();
         Customer customer = new Customer(name);
-        customers.add(customer);
-        System.out.println("Added customer: " + customer);
+        long journalPosition = registerNew(customer);
+        events.publish(EventType.CUSTOMER_ADDED, customer.getId(), 0, 0);
+        awaitDurable(journalPosition);
+        metrics.completed(Operation.ADD_CUSTOMER, start);
         return customer;
     }
 
+    // Adds many customers at once, in list order, e.g. for a migration: the registration lock is taken
+    // and the journal waited for once for the whole batch rather than per customer. Every name is
+    // checked before any customer is added.
+    public List<Customer> addCustomers(List<String> names) {
+        long start = metrics.startTime();
+        List<Customer> added = new ArrayList<>(names.size());
+        for (String name : names) {
+            added.add(new Customer(name));
+        }
+        long journalPosition = 0;
+        registrationLock.readLock().lock();
+        try {
+            for (Customer customer : added) {
+                if (journal != null) {
+                    journalPosition = journal.logCustomerAdded(customer.getId(), customer.getName());
+                }
+                customers.put(customer, customer);
+                nameIndex.add(customer);
+            }
+        } finally {
+            registrationLock.readLock().unlock();
+        }
+        for (Customer customer : added) {
+            events.publish(EventType.CUSTOMER_ADDED, customer.getId(), 0, 0);
+        }
+        awaitDurable(journalPosition);
+        metrics.completed(Operation.IMPORT, start);
+        return Collections.unmodifiableList(added);
+    }
+
     public Account openSavingsAccount(Customer owner, double initialDeposit, double interestRate) {
-        if (!customers.contains(owner)) {
+        if (!hasCustomer(owner)) {
             throw new IllegalArgumentException("Customer does not exist in this bank.");
         }
-        Account account = new SavingsAccount(owner, initialDeposit, interestRate);
-        accounts.add(account);
-        System.out.println("Opened savings account: " + account);
+        long start = metrics.startTime();
+        Account account = registerNew(new SavingsAccount(owner, initialDeposit, interestRate));
+        awaitDurable(account.getLastJournalPosition());
+        metrics.completed(Operation.OPEN_ACCOUNT, start);
         return account;
     }
 
     public Account openCheckingAccount(Customer owner, double initialDeposit, double overdraftLimit) {
-        if (!customers.contains(owner)) {
+        if (!hasCustomer(owner)) {
             throw new IllegalArgumentException("Customer does not exist in this bank.");
         }
-        Account account = new CheckingAccount(owner, initialDeposit, overdraftLimit);
-        accounts.add(account);
-        System.out.println("Opened checking account: " + account);
+        long start = metrics.startTime();
+        Account account = registerNew(new CheckingAccount(owner, initialDeposit, overdraftLimit));
+        awaitDurable(account.getLastJournalPosition());
+        metrics.completed(Operation.OPEN_ACCOUNT, start);
         return account;
     }
 
-    public Optional<Account> findAccount(String accountNumber) {
-        for (Account acc : accounts) {
-            if (acc.getAccountNumber().equals(accountNumber)) {
-                return Optional.of(acc);
+    // Opens accounts built (but not yet shared) by the caller, for BulkImport and Workload.populate,
+    // batched like addCustomers. Returns the accounts to hand out, in list order.
+    List<Account> openAccounts(List<Account> unopened) {
+        for (Account account : unopened) {
+            if (!hasCustomer(account.getOwner())) {
+                throw new IllegalArgumentException("Customer does not exist in this bank.");
+            }
+        }
+        long start = metrics.startTime();
+        List<Account> opened = new ArrayList<>(unopened.size());
+        long journalPosition = 0;
+        registrationLock.readLock().lock();
+        try {
+            for (Account account : unopened) {
+                Account registered = register(account);
+                journalPosition = Math.max(journalPosition, registered.getLastJournalPosition());
+                opened.add(registered);
             }
+        } finally {
+            registrationLock.readLock().unlock();
         }
-        return Optional.empty(); // Not found
+        awaitDurable(journalPosition);
+        metrics.completed(Operation.IMPORT, start);
+        return opened;
     }
 
-    public Optional<Customer> findCustomer(String customerId) {
-        for (Customer cust : customers) {
-            if (cust.getId().equals(customerId)) {
-                return Optional.of(cust);
+    // Prepares an import of customer and account files; see BulkImport
+    public BulkImport newBulkImport() {
+        return new BulkImport(this);
+    }
+
+    public void transfer(Account from, Account to, double amount) throws InsufficientFundsException {
+        transferMinor(from, to, Account.toPositiveMinor(amount, "Transfer amount must be positive."));
+    }
+
+    // Exact, allocation-free variant of transfer for callers that already work in minor units
+    public void transferMinor(Account from, Account to, long amountMinor) throws InsufficientFundsException {
+        checkTransfer(from, to, amountMinor);
+        // Always lock the lower account number first, so opposite-direction transfers can't deadlock
+        Account first = Account.LOCK_ORDER.compare(from, to) < 0 ? from : to;
+        Account second = first == from ? to : from;
+        long start = metrics.startTime();
+        long journalPosition;
+        first.lock.lock();
+        try {
+            second.lock.lock();
+            try {
+                versions.beforeWrite(from, to); // Under both locks; see Versions
+                try {
+                    from.checkDebit(amountMinor); // Throws before anything changes if from's rules don't allow it
+                } catch (InsufficientFundsException e) {
+                    metrics.rejected(Operation.TRANSFER, start);
+                    throw e;
+                }
+                journalPosition = transferred(from, to, amountMinor);
+            } finally {
+                second.lock.unlock();
             }
+        } finally {
+            first.lock.unlock();
         }
-        return Optional.empty(); // Not found
+        awaitDurable(journalPosition);
+        metrics.completed(Operation.TRANSFER, start);
+    }
+
+    // Non-throwing transfer for callers where declines are routine: returns a declined result instead of
+    // throwing, and moves nothing. Invalid arguments still throw IllegalArgumentException.
+    public DebitResult tryTransfer(Account from, Account to, double amount) {
+        return tryTransferMinor(from, to, Account.toPositiveMinor(amount, "Transfer amount must be positive."));
+    }
+
+    public DebitResult tryTransferMinor(Account from, Account to, long amountMinor) {
+        checkTransfer(from, to, amountMinor);
+        return tryTransferChecked(from, to, amountMinor);
+    }
+
+    // tryTransferMinor once its arguments are checked
+    private DebitResult tryTransferChecked(Account from, Account to, long amountMinor) {
+        Account first = Account.LOCK_ORDER.compare(from, to) < 0 ? from : to;
+        Account second = first == from ? to : from;
+        long start = metrics.startTime();
+        long journalPosition;
+        first.lock.lock();
+        try {
+            second.lock.lock();
+            try {
+                versions.beforeWrite(from, to); // Under both locks; see Versions
+                if (!from.canDebit(amountMinor)) {
+                    metrics.rejected(Operation.TRANSFER, start);
+                    return DebitResult.insufficientFunds(from.getAvailableFundsMinor());
+                }
+                journalPosition = transferred(from, to, amountMinor);
+            } finally {
+                second.lock.unlock();
+            }
+        } finally {
+            first.lock.unlock();
+        }
+        awaitDurable(journalPosition);
+        metrics.completed(Operation.TRANSFER, start);
+        return DebitResult.APPROVED;
+    }
+
+    // Deposits, withdrawals and transfers carrying a client's idempotency key. A client that retries after a
+    // timeout sends the same key again and gets the first attempt's outcome back instead of posting twice.
+    // Keys are remembered in memory for a day, at most the latest 100,000; see IdempotencyCache.
+    public void deposit(String idempotencyKey, Account account, double amount) {
+        depositMinor(idempotencyKey, account, Account.toPositiveMinor(amount, "Deposit amount must be positive."));
+    }
+
+    public void depositMinor(String idempotencyKey, Account account, long amountMinor) {
+        checkHasAccount(account);
+        idempotencyCache.execute(idempotencyKey, Operation.DEPOSIT, account.getNumber(), 0, amountMinor, () -> {
+            account.depositMinor(amountMinor);
+            return DebitResult.APPROVED;
+        });
+    }
+
+    public DebitResult tryWithdraw(String idempotencyKey, Account account, double amount) {
+        return tryWithdrawMinor(idempotencyKey, account, Account.toPositiveMinor(amount, "Withdrawal amount must be positive."));
+    }
+
+    public DebitResult tryWithdrawMinor(String idempotencyKey, Account account, long amountMinor) {
+        checkHasAccount(account);
+        return idempotencyCache.execute(idempotencyKey, Operation.WITHDRAWAL, account.getNumber(), 0, amountMinor,
+                () -> account.tryWithdrawMinor(amountMinor));
+    }
+
+    public DebitResult tryTransfer(String idempotencyKey, Account from, Account to, double amount) {
+        return tryTransferMinor(idempotencyKey, from, to, Account.toPositiveMinor(amount, "Transfer amount must be positive."));
+    }
+
+    public DebitResult tryTransferMinor(String idempotencyKey, Account from, Account to, long amountMinor) {
+        checkTransfer(from, to, amountMinor);
+        return idempotencyCache.execute(idempotencyKey, Operation.TRANSFER, from.getNumber(), to.getNumber(), amountMinor,
+                () -> tryTransferChecked(from, to, amountMinor));
+    }
+
+    // Applies the operations in list order and returns one result per operation, at the same index.
+    // Accounts are resolved once per batch, and each chunk of operations takes each of its accounts'
+    // locks once (in lock order) instead of once per operation. Never throws for a bad operation.
+    public List<BatchResult> applyBatch(List<BatchOperation> operations) {
+        long startTime = metrics.startTime();
+        int size = operations.size();
+        BatchResult[] results = new BatchResult[size];
+        Account[] sources = new Account[size];
+        Account[] targets = new Account[size];
+        Map<Long, Account> resolved = new HashMap<>(); // By parsed number, so "042" and "42" are one account
+        for (int i = 0; i < size; i++) {
+            BatchOperation operation = operations.get(i);
+            sources[i] = resolve(operation.getAccountNumber(), resolved);
+            if (operation.getKind() == BatchOperation.Kind.TRANSFER) {
+                targets[i] = resolve(operation.getTargetAccountNumber(), resolved);
+            }
+            if (sources[i] == null || (operation.getKind() == BatchOperation.Kind.TRANSFER && targets[i] == null)) {
+                results[i] = BatchResult.UNKNOWN_ACCOUNT;
+            } else if (operation.getAmountMinor() <= 0
+                    || (targets[i] != null && sources[i].getNumber() == targets[i].getNumber())) {
+                results[i] = BatchResult.INVALID_OPERATION;
+            }
+        }
+        long journalPosition = 0;
+        for (int start = 0; start < size; start += BATCH_CHUNK_SIZE) {
+            journalPosition = applyBatchChunk(operations, start, Math.min(size, start + BATCH_CHUNK_SIZE), sources, targets, results);
+        }
+        awaitDurable(journalPosition); // One group commit covers the whole batch
+        metrics.completed(Operation.BATCH, startTime);
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    // Prepares an interest run over every savings account open right now; call execute to post it
+    public InterestRun newInterestRun(long runId) {
+        return new InterestRun(runId, accounts.savingsAccounts(), journal);
+    }
+
+    public Optional<Account> findAccount(String accountNumber) {
+        Account account = lookUp(accountNumber);
+        metrics.lookedUp(Operation.FIND_ACCOUNT, account != null);
+        return Optional.ofNullable(account); // Empty if not found
+    }
+
+    public Optional<Customer> findCustomer(String customerId) {
+        Customer key = customerId == null ? null : Customer.key(customerId);
+        Customer customer = key == null ? null : customers.get(key);
+        metrics.lookedUp(Operation.FIND_CUSTOMER, customer != null);
+        return Optional.ofNullable(customer); // Empty if not found
     }
 
     public List<Account> getAccountsForCustomer(Customer customer) {
-        if (!customers.contains(customer)) {
+        if (!hasCustomer(customer)) {
             throw new IllegalArgumentException("Customer does not exist in this bank.");
         }
-        List<Account> customerAccounts = new ArrayList<>();
-        for (Account acc : accounts) {
-            if (acc.getOwner().equals(customer)) {
-                customerAccounts.add(acc);
+        return Collections.unmodifiableList(accounts.accountsOf(customer)); // Return immutable copy
+    }
+
+    // Customers whose name matches every word of the query, best first, for look-ups by name: words
+    // match case- and accent-insensitively, exactly, as a prefix ("smi" finds Smith), or with one typo
+    // in words of 4+ letters ("Jonh" finds John). Returns at most limit customers.
+    public List<Customer> searchCustomers(String query, int limit) {
+        return Collections.unmodifiableList(nameIndex.search(query, limit));
+    }
+
+    public List<Customer> getAllCustomers() {
+        return Collections.unmodifiableList(new ArrayList<>(customers.values())); // Copy, so callers never see concurrent changes
+    }
+
+    // Opens a consistent point-in-time view of every account and balance, for reporting and exports.
+    // Waits only for account openings in progress; writers never wait for it beyond the instant it takes
+    // to read each account under its lock. Close it when done.
+    public BankView openView() {
+        registrationLock.writeLock().lock(); // Every account is either fully registered or sees the view
+        try {
+            return versions.openView(accounts);
+        } finally {
+            registrationLock.writeLock().unlock();
+        }
+    }
+
+    // Bank-wide totals, kept up to date as balances change; reading them costs the same at any size
+    public Aggregates getAggregates() {
+        return aggregates;
+    }
+
+    // Delivers every balance change made from now on to listener, on a thread of the subscription's own,
+    // in order for each account. The ring holds 64Ki changes, and writers wait when it is full; close the
+    // subscription to stop. See Subscription.
+    public Subscription subscribe(BalanceChangeListener listener) {
+        return subscribe(listener, DEFAULT_FEED_CAPACITY, AsyncEventSink.OverflowPolicy.BLOCK);
+    }
+
+    // capacity is a power of two; with DROP writers never wait, and a full ring discards changes instead
+    public Subscription subscribe(BalanceChangeListener listener, int capacity, AsyncEventSink.OverflowPolicy overflowPolicy) {
+        return changeFeed.subscribe(listener, capacity, overflowPolicy);
+    }
+
+    // Accounts ordered by balance and checking accounts by headroom, for risk scans that should cost the
+    // size of their result. Built by the first call, which holds up account openings while it indexes
+    // every account; every balance change keeps it up to date from then on.
+    public BalanceIndex getBalanceIndex() {
+        if (!balanceIndex.isEnabled()) {
+            registrationLock.writeLock().lock();
+            try {
+                balanceIndex.enable(accounts.accounts());
+            } finally {
+                registrationLock.writeLock().unlock();
             }
         }
-        return Collections.unmodifiableList(customerAccounts); // Return immutable view
+        return balanceIndex;
     }
 
-    public List<Customer> getAllCustomers() {
-        return Collections.unmodifiableList(customers);
+    // Sum of the customer's balances, overdrafts included, without scanning their accounts
+    public double getNetWorth(Customer customer) {
+        return Money.toMajor(getNetWorthMinor(customer));
+    }
+
+    public long getNetWorthMinor(Customer customer) {
+        if (!hasCustomer(customer)) {
+            throw new IllegalArgumentException("Customer does not exist in this bank.");
+        }
+        return aggregates.getNetWorthMinor(customer);
     }
 
     public List<Account> getAllAccounts() {
-        return Collections.unmodifiableList(accounts);
+        List<Account> all = new ArrayList<>();
+        accounts.accounts().forEach(all::add);
+        return Collections.unmodifiableList(all);
+    }
+
+    private void checkTransfer(Account from, Account to, long amountMinor) {
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive.");
+        }
+        if (!hasAccount(from) || !hasAccount(to)) {
+            throw new IllegalArgumentException("Account does not exist in this bank.");
+        }
+        if (from.equals(to)) {
+            throw new IllegalArgumentException("Cannot transfer to the same account.");
+        }
+    }
+
+    // Journals, applies and publishes a transfer whose debit from's rules allow; caller holds both locks.
+    // Nothing changes unless the journal took the record. Returns the journal position to wait for, or 0
+    // without a journal.
+    private long transferred(Account from, Account to, long amountMinor) {
+        to.checkCredit(amountMinor);
+        long journalPosition = journal == null ? 0 : to.journaled(from.journaled(
+                journal.logTransfer(from.getAccountNumber(), to.getAccountNumber(), amountMinor)));
+        from.applyDebit(amountMinor);
+        long toBalance = to.credit(amountMinor);
+        from.events.publish(EventType.TRANSFER_OUT, from.getAccountNumber(), amountMinor, from.getBalanceMinor());
+        to.events.publish(EventType.TRANSFER_IN, to.getAccountNumber(), amountMinor, toBalance);
+        return journalPosition;
+    }
+
+    private boolean hasCustomer(Customer customer) {
+        return customer != null && customers.containsKey(customer);
+    }
+
+    // Stores may hand out a fresh Account view per lookup, so accounts are told apart by number, not identity
+    private Account resolve(String accountNumber, Map<Long, Account> resolved) {
+        if (accountNumber == null) {
+            return null;
+        }
+        try {
+            return resolved.computeIfAbsent(Long.parseLong(accountNumber), accounts::find);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Null unless the string is the number of an account in this bank
+    private Account lookUp(String accountNumber) {
+        try {
+            return accountNumber == null ? null : accounts.find(Long.parseLong(accountNumber));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Returns the journal position after the chunk's last record, or 0 without a journal
+    private long applyBatchChunk(List<BatchOperation> operations, int start, int end,
+                                 Account[] sources, Account[] targets, BatchResult[] results) {
+        Map<Long, Account> distinct = new HashMap<>();
+        for (int i = start; i < end; i++) {
+            if (results[i] == null) {
+                distinct.putIfAbsent(sources[i].getNumber(), sources[i]);
+                if (targets[i] != null) {
+                    distinct.putIfAbsent(targets[i].getNumber(), targets[i]);
+                }
+            }
+        }
+        List<Account> toLock = new ArrayList<>(distinct.values());
+        toLock.sort(Account.LOCK_ORDER);
+        int locked = 0;
+        long journalPosition = 0;
+        try {
+            for (Account account : toLock) {
+                account.lock.lock();
+                locked++;
+            }
+            versions.beforeWrite(toLock);
+            for (int i = start; i < end; i++) {
+                if (results[i] == null) {
+                    results[i] = check(operations.get(i), sources[i], targets[i]);
+                    if (results[i] == BatchResult.SUCCESS) {
+                        if (journal != null) {
+                            journalPosition = log(operations.get(i), sources[i], targets[i]); // Before the balances move
+                        }
+                        applyLocked(operations.get(i), sources[i], targets[i]);
+                    }
+                }
+            }
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                toLock.get(i).lock.unlock();
+            }
+        }
+        return journalPosition;
+    }
+
+    // Caller holds the locks of both accounts
+    private long log(BatchOperation operation, Account source, Account target) {
+        switch (operation.getKind()) {
+            case DEPOSIT:
+                return source.journaled(journal.logDeposit(source.getAccountNumber(), operation.getAmountMinor()));
+            case WITHDRAW:
+                return source.journaled(journal.logWithdrawal(source.getAccountNumber(), operation.getAmountMinor()));
+            case TRANSFER:
+                return target.journaled(source.journaled(
+                        journal.logTransfer(source.getAccountNumber(), target.getAccountNumber(), operation.getAmountMinor())));
+            default:
+                throw new IllegalStateException("Unknown operation kind: " + operation.getKind());
+        }
+    }
+
+    // Whether the operation can be applied, changing nothing; caller holds the locks of both accounts.
+    // A credit that would overflow the balance is reported, not thrown, so the rest of the batch goes on.
+    private static BatchResult check(BatchOperation operation, Account source, Account target) {
+        long amountMinor = operation.getAmountMinor();
+        try {
+            if (operation.getKind() == BatchOperation.Kind.DEPOSIT) {
+                source.checkCredit(amountMinor);
+                return BatchResult.SUCCESS;
+            }
+            if (!source.canDebit(amountMinor)) {
+                return BatchResult.INSUFFICIENT_FUNDS;
+            }
+            if (target != null) {
+                target.checkCredit(amountMinor);
+            }
+            return BatchResult.SUCCESS;
+        } catch (ArithmeticException e) {
+            return BatchResult.INVALID_OPERATION;
+        }
+    }
+
+    // Applies an operation check allowed, once it is journaled; caller holds the locks of both accounts
+    private static void applyLocked(BatchOperation operation, Account source, Account target) {
+        long amountMinor = operation.getAmountMinor();
+        switch (operation.getKind()) {
+            case DEPOSIT:
+                source.events.publish(EventType.DEPOSIT, source.getAccountNumber(), amountMinor, source.credit(amountMinor));
+                break;
+            case WITHDRAW:
+                source.applyDebit(amountMinor);
+                source.events.publish(EventType.WITHDRAWAL, source.getAccountNumber(), amountMinor, source.getBalanceMinor());
+                break;
+            case TRANSFER:
+                source.applyDebit(amountMinor);
+                long targetBalance = target.credit(amountMinor);
+                source.events.publish(EventType.TRANSFER_OUT, source.getAccountNumber(), amountMinor, source.getBalanceMinor());
+                target.events.publish(EventType.TRANSFER_IN, target.getAccountNumber(), amountMinor, targetBalance);
+                break;
+            default:
+                throw new IllegalStateException("Unknown operation kind: " + operation.getKind());
+        }
+    }
+
+    // Returns the journal position the snapshot was taken at
+    private long load(Path snapshot) throws IOException {
+        BankSnapshot.Contents contents = BankSnapshot.read(snapshot);
+        for (Customer customer : contents.customers) {
+            customers.put(customer, customer);
+            nameIndex.add(customer);
+        }
+        contents.accounts.parallelStream().forEach(accounts::add);
+        return contents.journalPosition;
+    }
+
+    private void awaitDurable(long journalPosition) {
+        if (journalPosition > 0) {
+            journal.awaitDurable(journalPosition);
+        }
+    }
+
+    private boolean hasAccount(Account account) {
+        return account != null && accounts.contains(account);
+    }
+
+    private void checkHasAccount(Account account) {
+        if (!hasAccount(account)) {
+            throw new IllegalArgumentException("Account does not exist in this bank.");
+        }
+    }
+
+    // Journals a new customer and makes it visible. Returns the journal position to wait for.
+    private long registerNew(Customer customer) {
+        if (journal == null) {
+            customers.put(customer, customer);
+            nameIndex.add(customer);
+            return 0;
+        }
+        registrationLock.readLock().lock();
+        try {
+            long journalPosition = journal.logCustomerAdded(customer.getId(), customer.getName());
+            customers.put(customer, customer);
+            nameIndex.add(customer);
+            return journalPosition;
+        } finally {
+            registrationLock.readLock().unlock();
+        }
+    }
+
+    // Journals a newly opened account before it becomes visible, so no later record for it can come first.
+    // Returns the account to hand out; its last journal position is the one to wait for.
+    private Account registerNew(Account account) {
+        registrationLock.readLock().lock();
+        try {
+            return register(account);
+        } finally {
+            registrationLock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the registration lock shared. The opening is journaled and published before the account
+    // can be found, so no change to it can be journaled or published ahead of its opening.
+    private Account register(Account account) {
+        versions.opened(account); // Views already open leave it out
+        if (journal != null) {
+            String ownerId = account.getOwner().getId();
+            long journalPosition = account instanceof SavingsAccount
+                    ? journal.logSavingsOpened(account.getAccountNumber(), ownerId, account.getBalanceMinor(),
+                            ((SavingsAccount) account).getInterestRateMillionths())
+                    : journal.logCheckingOpened(account.getAccountNumber(), ownerId, account.getBalanceMinor(),
+                            ((CheckingAccount) account).getOverdraftLimitMinor());
+            account.journaled(journalPosition);
+        }
+        events.publish(account instanceof SavingsAccount ? EventType.SAVINGS_OPENED : EventType.CHECKING_OPENED,
+                account.getAccountNumber(), account.getBalanceMinor(), account.getBalanceMinor());
+        return accounts.add(account);
+    }
+
+    // Rebuilds state from journal records. Runs before the bank is handed out, so nothing needs locking,
+    // and nothing is journaled or published again. When a snapshot was loaded first, records it already
+    // includes are skipped: customers and accounts that exist, and account records at or before the
+    // account's own last journal position.
+    private final class Replay implements Journal.Replayer {
+        @Override
+        public void customerAdded(long position, String customerId, String name) {
+            Customer customer = new Customer(customerId, name);
+            if (customers.putIfAbsent(customer, customer) == null) {
+                nameIndex.add(customer);
+            }
+        }
+
+        @Override
+        public void savingsOpened(long position, String accountNumber, String ownerId, long balanceMinor, long interestRate) {
+            if (lookUp(accountNumber) == null) {
+                opened(new SavingsAccount(Long.parseLong(accountNumber), owner(ownerId), balanceMinor, interestRate), position);
+            }
+        }
+
+        @Override
+        public void checkingOpened(long position, String accountNumber, String ownerId, long balanceMinor, long overdraftLimitMinor) {
+            if (lookUp(accountNumber) == null) {
+                opened(new CheckingAccount(Long.parseLong(accountNumber), owner(ownerId), balanceMinor, overdraftLimitMinor), position);
+            }
+        }
+
+        @Override
+        public void deposited(long position, String accountNumber, long amountMinor) {
+            Account account = account(accountNumber);
+            if (isNew(account, position)) {
+                account.credit(amountMinor);
+            }
+        }
+
+        @Override
+        public void withdrew(long position, String accountNumber, long amountMinor) {
+            Account account = account(accountNumber);
+            if (isNew(account, position)) {
+                account.credit(-amountMinor); // Already checked when it happened
+            }
+        }
+
+        @Override
+        public void interestPosted(long position, String accountNumber, long amountMinor, long runId) {
+            Account account = account(accountNumber);
+            if (!(account instanceof SavingsAccount)) {
+                throw new IllegalStateException("Journal posts interest to non-savings account " + accountNumber + ".");
+            }
+            if (isNew(account, position)) {
+                ((SavingsAccount) account).restoreInterest(amountMinor, runId);
+            }
+        }
+
+        @Override
+        public void transferred(long position, String fromAccountNumber, String toAccountNumber, long amountMinor) {
+            Account from = account(fromAccountNumber);
+            Account to = account(toAccountNumber);
+            if (isNew(from, position)) {
+                from.credit(-amountMinor);
+            }
+            if (isNew(to, position)) {
+                to.credit(amountMinor);
+            }
+        }
+
+        private void opened(Account account, long position) {
+            account.journaled(position);
+            accounts.add(account);
+        }
+
+        // True (and advances the account's position) if the account doesn't include this record yet
+        private boolean isNew(Account account, long position) {
+            if (position <= account.getLastJournalPosition()) {
+                return false;
+            }
+            account.journaled(position);
+            return true;
+        }
+
+        private Customer owner(String customerId) {
+            Customer key = Customer.key(customerId);
+            Customer owner = key == null ? null : customers.get(key);
+            if (owner == null) {
+                throw new IllegalStateException("Journal refers to unknown customer " + customerId + ".");
+            }
+            return owner;
+        }
+
+        private Account account(String accountNumber) {
+            Account account = lookUp(accountNumber);
+            if (account == null) {
+                throw new IllegalStateException("Journal refers to unknown account " + accountNumber + ".");
+            }
+            return account;
+        }
     }
-}
\ No newline at end of file
+}
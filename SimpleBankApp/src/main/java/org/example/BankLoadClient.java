@@ -0,0 +1,168 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Load generator for a running BankServer: opens a set of checking accounts, then runs one client per
+// virtual thread, each sending deposits (60%), withdrawals (30%) and lookups (10%) against random accounts
+// back to back until the time is up. Declined withdrawals (409) are normal outcomes, not errors.
+public class BankLoadClient {
+
+    // Totals of one run; latencies are per request, in nanoseconds
+    public static final class Report {
+        private final long requests;
+        private final long declined;
+        private final long errors;
+        private final long elapsedNanos;
+        private final LatencyHistogram latencies;
+
+        Report(long requests, long declined, long errors, long elapsedNanos, LatencyHistogram latencies) {
+            this.requests = requests;
+            this.declined = declined;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getDeclined() {
+            return declined;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getRequestsPerSecond() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%.0f/s), %d declined, %d errors, latency p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+                    requests, getRequestsPerSecond(), declined, errors,
+                    latencies.getPercentile(0.5) / 1e6, latencies.getPercentile(0.99) / 1e6,
+                    latencies.getPercentile(0.999) / 1e6, latencies.getMax() / 1e6);
+        }
+    }
+
+    private final URI server;
+    private final int clients;
+    private final int accounts;
+    private final HttpClient http;
+
+    public BankLoadClient(URI server, int clients, int accounts) {
+        if (clients < 1 || accounts < 1) {
+            throw new IllegalArgumentException("Clients and accounts must be positive.");
+        }
+        this.server = server;
+        this.clients = clients;
+        this.accounts = accounts;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1) // The JDK server speaks only HTTP/1.1
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    // Usage: BankLoadClient [server URL] [clients] [seconds] [accounts]
+    public static void main(String[] args) throws IOException, InterruptedException {
+        URI server = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int accounts = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        System.out.println(new BankLoadClient(server, clients, accounts).run(Duration.ofSeconds(seconds)));
+    }
+
+    public Report run(Duration duration) throws IOException, InterruptedException {
+        List<String> numbers = openAccounts();
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder declined = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                threads.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        String account = numbers.get(random.nextInt(numbers.size()));
+                        int choice = random.nextInt(10);
+                        HttpRequest request = choice < 6 ? post("/accounts/" + account + "/deposit", "amount=1.00")
+                                : choice < 9 ? post("/accounts/" + account + "/withdraw", "amount=1.00")
+                                : HttpRequest.newBuilder(server.resolve("/accounts/" + account)).GET().build();
+                        long sent = System.nanoTime();
+                        try {
+                            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            latencies.record(System.nanoTime() - sent);
+                            if (status == 409) {
+                                declined.increment();
+                            } else if (status != 200) {
+                                errors.increment();
+                            }
+                        } catch (IOException e) {
+                            latencies.record(System.nanoTime() - sent);
+                            errors.increment();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                });
+            }
+        } // Waits for every client to finish
+        return new Report(latencies.getCount(), declined.sum(), errors.sum(), System.nanoTime() - start, latencies);
+    }
+
+    private List<String> openAccounts() throws IOException, InterruptedException {
+        String customer = field(send(post("/customers", "name=Load+test")), "id");
+        List<String> numbers = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            String account = send(post("/accounts", "type=checking&customer=" + customer + "&initialDeposit=1000000"));
+            numbers.add(field(account, "accountNumber"));
+        }
+        return numbers;
+    }
+
+    private HttpRequest post(String path, String form) {
+        return HttpRequest.newBuilder(server.resolve(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Setup request " + request.uri() + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    // Value of a string field in the server's flat JSON objects
+    static String field(String json, String name) {
+        String key = "\"" + name + "\":\"";
+        int start = json.indexOf(key);
+        if (start < 0) {
+            throw new IllegalArgumentException("No field " + name + " in " + json + ".");
+        }
+        start += key.length();
+        return json.substring(start, json.indexOf('"', start));
+    }
+}
@@ -0,0 +1,305 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Serves a Bank over HTTP with the JDK's built-in server. Every exchange is handled on its own virtual
+// thread, so clients waiting on the journal's group commit, or simply holding idle keep-alive connections,
+// don't each tie up a platform thread.
+//
+// Parameters come from the query string or an application/x-www-form-urlencoded body; responses are JSON.
+//   POST /customers                   name
+//   GET  /customers/{id}
+//   GET  /customers/{id}/accounts
+//   POST /accounts                    customer, type (savings or checking), initialDeposit,
+//                                     interestRate (savings) or overdraftLimit (checking)
+//   GET  /accounts/{number}
+//   POST /accounts/{number}/deposit   amount
+//   POST /accounts/{number}/withdraw  amount
+//   POST /transfers                   from, to, amount
+// Unknown customers or accounts get 404, invalid arguments 400, debits over the available funds 409, and
+// anything else that fails (e.g. the journal) 500.
+// Deposits, withdrawals and transfers may carry an Idempotency-Key header; a retry with the same key gets
+// the first attempt's outcome instead of being applied again (see Bank.deposit with a key).
+//
+// Embedding: the JDK server writes headers and body separately, so without TCP_NODELAY every keep-alive
+// response stalls ~40ms on the client's delayed ACK. main turns it on; embedders should run the JVM with
+// -Dsun.net.httpserver.nodelay=true (it is read once, when the first server is created).
+public class BankServer implements AutoCloseable {
+
+    private static final int DEFAULT_BACKLOG = 4096;
+
+    private final Bank bank;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Binds to address (port 0 picks a free one); call start to begin serving
+    public BankServer(Bank bank, InetSocketAddress address) throws IOException {
+        this.bank = bank;
+        this.server = HttpServer.create(address, DEFAULT_BACKLOG);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    // Usage: BankServer [port] [journal file]. Without a journal the bank lives only in memory.
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true"); // See the class comment
+        }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Journal journal = args.length > 1 ? Journal.open(Path.of(args[1])) : null;
+        Bank bank = journal == null ? new Bank() : Bank.recover(journal);
+        BankServer server = new BankServer(bank, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Closing the journal failed: " + e);
+                }
+            }
+        }));
+        server.start();
+        System.out.println("Serving on port " + server.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting connections and waits for exchanges in progress to finish
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                String[] path = exchange.getRequestURI().getPath().split("/");
+                route(exchange, path, params(exchange));
+            } catch (IllegalArgumentException e) {
+                respondIfUnsent(exchange, 400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                System.err.println("Request " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: " + e);
+                respondIfUnsent(exchange, 500, error("Internal server error."));
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange, String[] path, Map<String, String> params) throws IOException {
+        boolean post = "POST".equals(exchange.getRequestMethod());
+        boolean get = "GET".equals(exchange.getRequestMethod());
+        String resource = path.length > 1 ? path[1] : "";
+        if (resource.equals("customers")) {
+            if (path.length == 2 && post) {
+                respond(exchange, 201, customerJson(bank.addCustomer(params.get("name"))));
+                return;
+            }
+            if (path.length >= 3 && get) {
+                Customer customer = bank.findCustomer(path[2]).orElse(null);
+                if (customer == null) {
+                    respond(exchange, 404, error("Customer not found."));
+                } else if (path.length == 3) {
+                    respond(exchange, 200, customerJson(customer));
+                } else if (path.length == 4 && path[3].equals("accounts")) {
+                    respond(exchange, 200, accountsJson(bank.getAccountsForCustomer(customer)));
+                } else {
+                    respond(exchange, 404, error("Not found."));
+                }
+                return;
+            }
+        } else if (resource.equals("accounts")) {
+            if (path.length == 2 && post) {
+                openAccount(exchange, params);
+                return;
+            }
+            if (path.length >= 3 && (get || post)) {
+                Account account = bank.findAccount(path[2]).orElse(null);
+                if (account == null) {
+                    respond(exchange, 404, error("Account not found."));
+                } else if (path.length == 3 && get) {
+                    respond(exchange, 200, accountJson(account));
+                } else if (path.length == 4 && post && path[3].equals("deposit")) {
+                    String key = idempotencyKey(exchange);
+                    if (key == null) {
+                        account.deposit(amount(params, "amount"));
+                    } else {
+                        bank.deposit(key, account, amount(params, "amount"));
+                    }
+                    respond(exchange, 200, accountJson(account));
+                } else if (path.length == 4 && post && path[3].equals("withdraw")) {
+                    String key = idempotencyKey(exchange);
+                    double amount = amount(params, "amount");
+                    DebitResult result = key == null ? account.tryWithdraw(amount) : bank.tryWithdraw(key, account, amount);
+                    debited(exchange, result, account);
+                } else {
+                    respond(exchange, 404, error("Not found."));
+                }
+                return;
+            }
+        } else if (resource.equals("transfers") && path.length == 2 && post) {
+            Account from = bank.findAccount(params.get("from")).orElse(null);
+            Account to = bank.findAccount(params.get("to")).orElse(null);
+            if (from == null || to == null) {
+                respond(exchange, 404, error("Account not found."));
+                return;
+            }
+            String key = idempotencyKey(exchange);
+            double amount = amount(params, "amount");
+            debited(exchange, key == null ? bank.tryTransfer(from, to, amount) : bank.tryTransfer(key, from, to, amount), from);
+            return;
+        }
+        respond(exchange, get || post ? 404 : 405, error(get || post ? "Not found." : "Method not allowed."));
+    }
+
+    private void openAccount(HttpExchange exchange, Map<String, String> params) throws IOException {
+        Customer owner = bank.findCustomer(params.get("customer")).orElse(null);
+        if (owner == null) {
+            respond(exchange, 404, error("Customer not found."));
+            return;
+        }
+        double initialDeposit = params.containsKey("initialDeposit") ? amount(params, "initialDeposit") : 0.0;
+        Account account;
+        if ("savings".equals(params.get("type"))) {
+            account = bank.openSavingsAccount(owner, initialDeposit, amount(params, "interestRate"));
+        } else if ("checking".equals(params.get("type"))) {
+            double overdraftLimit = params.containsKey("overdraftLimit") ? amount(params, "overdraftLimit") : 0.0;
+            account = bank.openCheckingAccount(owner, initialDeposit, overdraftLimit);
+        } else {
+            throw new IllegalArgumentException("Account type must be savings or checking.");
+        }
+        respond(exchange, 201, accountJson(account));
+    }
+
+    private static void debited(HttpExchange exchange, DebitResult result, Account account) throws IOException {
+        if (result.isApproved()) {
+            respond(exchange, 200, accountJson(account));
+        } else {
+            respond(exchange, 409, error("Insufficient funds."));
+        }
+    }
+
+    // Null if the request carries none
+    private static String idempotencyKey(HttpExchange exchange) {
+        return exchange.getRequestHeaders().getFirst("Idempotency-Key");
+    }
+
+    private static double amount(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter " + name + ".");
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be a number.");
+        }
+    }
+
+    // Query string parameters, then form body parameters
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readAllBytes();
+            if (bytes.length > 0) {
+                parseForm(new String(bytes, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    // For failures: once headers are out the status can't change, and closing the exchange ends the response
+    private static void respondIfUnsent(HttpExchange exchange, int status, String json) throws IOException {
+        if (exchange.getResponseCode() == -1) {
+            respond(exchange, status, json);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static String customerJson(Customer customer) {
+        return "{\"id\":" + quote(customer.getId()) + ",\"name\":" + quote(customer.getName()) + '}';
+    }
+
+    static String accountJson(Account account) {
+        StringBuilder json = new StringBuilder(128)
+                .append("{\"accountNumber\":").append(quote(account.getAccountNumber()))
+                .append(",\"owner\":").append(quote(account.getOwner().getId()));
+        if (account instanceof SavingsAccount savings) {
+            json.append(",\"type\":\"savings\",\"interestRate\":").append(savings.getInterestRate());
+        } else if (account instanceof CheckingAccount checking) {
+            json.append(",\"type\":\"checking\",\"overdraftLimit\":").append(checking.getOverdraftLimit());
+        }
+        return json.append(",\"balance\":").append(account.getBalance()).append('}').toString();
+    }
+
+    private static String accountsJson(List<Account> accounts) {
+        StringBuilder json = new StringBuilder("[");
+        for (Account account : accounts) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(accountJson(account));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + '}';
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,350 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Compact binary point-in-time image of a Bank, so startup doesn't have to replay the whole journal.
+//
+// Layout: [int magic][int version][long journal position], then blocks of
+// [byte section][int record count][int byte length][records], ended by a single zero byte.
+// Numbers are varints (balances zig-zag encoded), customer ids two plain longs, and strings a varint
+// length plus UTF-8 bytes. Version 1 files, which held ids as strings, can still be read.
+// Blocks are independent, so the loader maps and decodes them in parallel.
+//
+// Snapshots are taken while writers keep running: each account is read under its own lock together
+// with the position of its latest journal record, and replay skips records an account already includes.
+// Accounts are written before customers. Customers are never removed, so every owner of a written
+// account is sure to be in the customer section that follows.
+final class BankSnapshot {
+
+    private static final int MAGIC = 0x424B534E; // "BKSN"
+    private static final int VERSION = 2;
+    private static final int STRING_IDS_VERSION = 1;
+
+    private static final byte END = 0;
+    private static final byte ACCOUNTS = 1;
+    private static final byte CUSTOMERS = 2;
+
+    private static final byte SAVINGS = 1;
+    private static final byte CHECKING = 2;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int BLOCK_HEADER_SIZE = 9;
+    private static final int BLOCK_TARGET_SIZE = 256 * 1024;
+
+    private BankSnapshot() {
+        // Static helpers only
+    }
+
+    // What a snapshot file holds
+    static final class Contents {
+        final long journalPosition;
+        final List<Customer> customers;
+        final List<Account> accounts;
+
+        Contents(long journalPosition, List<Customer> customers, List<Account> accounts) {
+            this.journalPosition = journalPosition;
+            this.customers = customers;
+            this.accounts = accounts;
+        }
+    }
+
+    static void write(Path file, long journalPosition, Iterable<Account> accounts, Iterable<Customer> customers) throws IOException {
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalPosition);
+
+            Block block = new Block();
+            for (Account account : accounts) {
+                writeAccount(block, account);
+                if (block.size() >= BLOCK_TARGET_SIZE) {
+                    block.writeTo(out, ACCOUNTS);
+                }
+            }
+            block.writeTo(out, ACCOUNTS);
+            for (Customer customer : customers) {
+                block.putLong(customer.getIdHigh());
+                block.putLong(customer.getIdLow());
+                block.putString(customer.getName());
+                block.recordDone();
+                if (block.size() >= BLOCK_TARGET_SIZE) {
+                    block.writeTo(out, CUSTOMERS);
+                }
+            }
+            block.writeTo(out, CUSTOMERS);
+            out.writeByte(END);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(false); // The snapshot must be on disk before it replaces the previous one
+        }
+    }
+
+    static Contents read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a bank snapshot: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION && version != STRING_IDS_VERSION) {
+                throw new IOException("Unsupported bank snapshot version " + version + ".");
+            }
+            long journalPosition = header.getLong();
+
+            // Sequential pass over the block headers only; the contents are decoded in parallel below
+            List<BlockRef> accountBlocks = new ArrayList<>();
+            List<BlockRef> customerBlocks = new ArrayList<>();
+            long position = HEADER_SIZE;
+            while (true) {
+                byte section = readFully(channel, position, 1).get();
+                if (section == END) {
+                    break;
+                }
+                ByteBuffer blockHeader = readFully(channel, position, BLOCK_HEADER_SIZE);
+                blockHeader.get();
+                int count = blockHeader.getInt();
+                int length = blockHeader.getInt();
+                BlockRef ref = new BlockRef(position + BLOCK_HEADER_SIZE, length, count);
+                if (section == ACCOUNTS) {
+                    accountBlocks.add(ref);
+                } else if (section == CUSTOMERS) {
+                    customerBlocks.add(ref);
+                } else {
+                    throw new IOException("Corrupt bank snapshot: unknown section " + section + ".");
+                }
+                position += BLOCK_HEADER_SIZE + length;
+            }
+
+            Map<Customer, Customer> owners = new HashMap<>(); // Only read once filled, so safe to share with the decoders
+            List<Customer> customers = decodeAll(customerBlocks, ref -> decodeCustomers(channel, ref, version));
+            for (Customer customer : customers) {
+                owners.put(customer, customer);
+            }
+            List<Account> accounts = decodeAll(accountBlocks, ref -> decodeAccounts(channel, ref, version, owners));
+            return new Contents(journalPosition, customers, accounts);
+        }
+    }
+
+    private static void writeAccount(Block block, Account account) {
+        long balance;
+        long journalPosition;
+        long lastInterestRunId = 0;
+        account.lock.lock(); // Just long enough to read a consistent set of fields
+        try {
+            balance = account.getBalanceMinor();
+            journalPosition = account.getLastJournalPosition();
+            if (account instanceof SavingsAccount) {
+                lastInterestRunId = ((SavingsAccount) account).getLastInterestRunId();
+            }
+        } finally {
+            account.lock.unlock();
+        }
+        if (account instanceof SavingsAccount) {
+            block.putByte(SAVINGS);
+            block.putVarLong(((SavingsAccount) account).getInterestRateMillionths());
+        } else if (account instanceof CheckingAccount) {
+            block.putByte(CHECKING);
+            block.putVarLong(((CheckingAccount) account).getOverdraftLimitMinor());
+        } else {
+            throw new IllegalStateException("Cannot snapshot account type " + account.getClass().getName() + ".");
+        }
+        block.putVarLong(account.getNumber());
+        block.putLong(account.getOwner().getIdHigh());
+        block.putLong(account.getOwner().getIdLow());
+        block.putVarLong(zigZag(balance));
+        block.putVarLong(journalPosition);
+        block.putVarLong(lastInterestRunId);
+        block.recordDone();
+    }
+
+    private static List<Customer> decodeCustomers(FileChannel channel, BlockRef ref, int version) {
+        ByteBuffer in = map(channel, ref);
+        List<Customer> customers = new ArrayList<>(ref.count);
+        for (int i = 0; i < ref.count; i++) {
+            customers.add(version == STRING_IDS_VERSION
+                    ? new Customer(getString(in), getString(in))
+                    : new Customer(in.getLong(), in.getLong(), getString(in)));
+        }
+        return customers;
+    }
+
+    private static List<Account> decodeAccounts(FileChannel channel, BlockRef ref, int version, Map<Customer, Customer> owners) {
+        ByteBuffer in = map(channel, ref);
+        List<Account> accounts = new ArrayList<>(ref.count);
+        for (int i = 0; i < ref.count; i++) {
+            byte kind = in.get();
+            long terms = getVarLong(in);
+            long number;
+            Customer ownerKey;
+            if (version == STRING_IDS_VERSION) {
+                number = Long.parseLong(getString(in));
+                ownerKey = Customer.key(getString(in));
+            } else {
+                number = getVarLong(in);
+                ownerKey = Customer.key(in.getLong(), in.getLong());
+            }
+            long balance = unZigZag(getVarLong(in));
+            long journalPosition = getVarLong(in);
+            long lastInterestRunId = getVarLong(in);
+            Customer owner = ownerKey == null ? null : owners.get(ownerKey);
+            if (owner == null) {
+                throw new IllegalStateException("Corrupt bank snapshot: account " + number + " has an unknown owner.");
+            }
+            Account account = kind == SAVINGS
+                    ? new SavingsAccount(number, owner, balance, terms, lastInterestRunId)
+                    : new CheckingAccount(number, owner, balance, terms);
+            account.journaled(journalPosition);
+            accounts.add(account);
+        }
+        return accounts;
+    }
+
+    private interface BlockDecoder<T> {
+        List<T> decode(BlockRef ref);
+    }
+
+    private static <T> List<T> decodeAll(List<BlockRef> blocks, BlockDecoder<T> decoder) {
+        return blocks.parallelStream()
+                .map(decoder::decode)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    private static ByteBuffer map(FileChannel channel, BlockRef ref) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, ref.offset, ref.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated bank snapshot.");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) getVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Location of one block's records in the file
+    private static final class BlockRef {
+        final long offset;
+        final int length;
+        final int count;
+
+        BlockRef(long offset, int length, int count) {
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+        }
+    }
+
+    // Growable buffer collecting one block's records before it's written out
+    private static final class Block {
+        private byte[] bytes = new byte[BLOCK_TARGET_SIZE + 1024];
+        private int size;
+        private int count;
+
+        int size() {
+            return size;
+        }
+
+        void putByte(byte value) {
+            ensureCapacity(1);
+            bytes[size++] = value;
+        }
+
+        void putLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift); // Big-endian, as ByteBuffer reads it
+            }
+        }
+
+        void putVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void putString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(encoded.length);
+            ensureCapacity(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        void recordDone() {
+            count++;
+        }
+
+        void writeTo(DataOutputStream out, byte section) throws IOException {
+            if (count == 0) {
+                return;
+            }
+            out.writeByte(section);
+            out.writeInt(count);
+            out.writeInt(size);
+            out.write(bytes, 0, size);
+            size = 0;
+            count = 0;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
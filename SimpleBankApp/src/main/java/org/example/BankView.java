@@ -0,0 +1,80 @@
+package org.example;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjLongConsumer;
+
+// Consistent point-in-time view of every account and balance, from Bank.openView. Nothing is copied
+// up front: the view reads live balances, and writers set aside the old balance of any account they
+// change while it is open (see Versions). A transfer is either fully in the view or not at all.
+// Each read takes the account's lock just long enough to read two values, so writers are never held
+// up for longer than that, and never by the view as a whole.
+//
+// Keep views short-lived and close them: an open view holds one saved balance per account changed since
+// it was taken.
+public final class BankView implements AutoCloseable {
+    final ConcurrentHashMap<Long, Long> saved = new ConcurrentHashMap<>(); // Account number to balance at the cut
+    private final Versions versions;
+    private final AccountStore accounts;
+    private volatile boolean closed;
+
+    BankView(Versions versions, AccountStore accounts) {
+        this.versions = versions;
+        this.accounts = accounts;
+    }
+
+    public double getBalance(Account account) {
+        return Money.toMajor(getBalanceMinor(account));
+    }
+
+    // The account's balance when the view was taken
+    public long getBalanceMinor(Account account) {
+        checkOpen();
+        long balance = balanceAtCut(account);
+        if (balance == Versions.NOT_OPEN) {
+            throw new IllegalArgumentException("Account was opened after the view was taken.");
+        }
+        return balance;
+    }
+
+    // Every account that existed when the view was taken, with its balance then
+    public void forEach(ObjLongConsumer<Account> action) {
+        checkOpen();
+        for (Account account : accounts.accounts()) {
+            long balance = balanceAtCut(account);
+            if (balance != Versions.NOT_OPEN) {
+                action.accept(account, balance);
+            }
+        }
+    }
+
+    public long getTotalBalanceMinor() {
+        long[] total = new long[1];
+        forEach((account, balance) -> total[0] += balance);
+        return total[0];
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            versions.close(this);
+        }
+    }
+
+    // Under the lock, no change from before the cut can still be in progress on this account
+    private long balanceAtCut(Account account) {
+        account.lock.lock();
+        try {
+            Long atCut = saved.get(account.getNumber());
+            return atCut == null ? account.getBalanceMinor() : atCut;
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("View is closed.");
+        }
+    }
+}
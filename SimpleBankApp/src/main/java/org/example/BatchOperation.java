@@ -0,0 +1,97 @@
+package org.example;
+
+import java.util.Objects;
+
+// One deposit, withdrawal or transfer for Bank.applyBatch, addressed by account number.
+// Bad amounts are not rejected here: applyBatch reports them per item instead of throwing.
+public final class BatchOperation {
+
+    public enum Kind {
+        DEPOSIT,
+        WITHDRAW,
+        TRANSFER
+    }
+
+    private final Kind kind;
+    private final String accountNumber;
+    private final String targetAccountNumber; // Only set for transfers
+    private final long amountMinor;
+
+    public BatchOperation(Kind kind, String accountNumber, String targetAccountNumber, long amountMinor) {
+        if (kind == null) {
+            throw new IllegalArgumentException("Operation kind cannot be null.");
+        }
+        this.kind = kind;
+        this.accountNumber = accountNumber;
+        this.targetAccountNumber = targetAccountNumber;
+        this.amountMinor = amountMinor;
+    }
+
+    public static BatchOperation deposit(String accountNumber, double amount) {
+        return new BatchOperation(Kind.DEPOSIT, accountNumber, null, toMinorOrZero(amount));
+    }
+
+    public static BatchOperation withdraw(String accountNumber, double amount) {
+        return new BatchOperation(Kind.WITHDRAW, accountNumber, null, toMinorOrZero(amount));
+    }
+
+    public static BatchOperation transfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        return new BatchOperation(Kind.TRANSFER, fromAccountNumber, toAccountNumber, toMinorOrZero(amount));
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    // The account deposited to or withdrawn from, or the source of a transfer
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public String getTargetAccountNumber() {
+        return targetAccountNumber;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    // Zero is never a valid amount, so it stands in for anything that can't be converted,
+    // including amounts too large for Money to hold
+    private static long toMinorOrZero(double amount) {
+        if (!Double.isFinite(amount) || amount <= 0) {
+            return 0;
+        }
+        try {
+            return Money.toMinor(amount);
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchOperation that = (BatchOperation) o;
+        return amountMinor == that.amountMinor
+                && kind == that.kind
+                && Objects.equals(accountNumber, that.accountNumber)
+                && Objects.equals(targetAccountNumber, that.targetAccountNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, accountNumber, targetAccountNumber, amountMinor);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchOperation{" +
+                "kind=" + kind +
+                ", accountNumber='" + accountNumber + '\'' +
+                (targetAccountNumber != null ? ", targetAccountNumber='" + targetAccountNumber + '\'' : "") +
+                ", amount=" + Money.toMajor(amountMinor) +
+                '}';
+    }
+}
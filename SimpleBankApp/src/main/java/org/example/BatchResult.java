@@ -0,0 +1,9 @@
+package org.example;
+
+// Outcome of one BatchOperation passed to Bank.applyBatch
+public enum BatchResult {
+    SUCCESS,
+    INSUFFICIENT_FUNDS, // Same rule that makes withdraw throw InsufficientFundsException
+    UNKNOWN_ACCOUNT,    // An account number doesn't exist in the bank
+    INVALID_OPERATION   // Amount not positive, a transfer to the same account, or a balance that would overflow
+}
@@ -0,0 +1,291 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Loads a migrated portfolio from two CSV files: customers first, then their accounts.
+//
+//   customers: id,name                         id is the customer's id in the source system
+//   accounts:  customer_id,type,balance,terms  type is savings (terms: interest rate, e.g. 0.025)
+//                                              or checking (terms: overdraft limit)
+//
+// Each file starts with that header line. Fields may be quoted ("Smith, John", with "" for a quote);
+// blank lines are skipped. Amounts are in major units, as everywhere else in the public API.
+//
+// The calling thread streams the file and hands chunks of rows to the pool, which validates them and
+// adds each chunk's valid rows to the bank as one batch (Bank.addCustomers), so the registration lock
+// and the journal's group commit are paid per chunk rather than per row. At most a few chunks per
+// thread are in memory at once, however big the file. Rows are added in no particular order.
+//
+// A bad row (wrong field count, unknown or duplicate customer id, invalid amount...) is reported to the
+// listener and skipped; the rest of the file still loads. Create imports through Bank.newBulkImport.
+public class BulkImport {
+
+    // Called from pool threads, possibly several at once
+    @FunctionalInterface
+    public interface BadRowListener {
+        void onBadRow(Path file, long lineNumber, String line, String reason);
+    }
+
+    private static final int CHUNK_ROWS = 4096;
+    private static final String CUSTOMERS_HEADER = "id,name";
+    private static final String ACCOUNTS_HEADER = "customer_id,type,balance,terms";
+    private static final String[] BLANK = new String[0]; // What fields returns for a blank line
+
+    private final Bank bank;
+    private final Map<String, Customer> customersBySourceId = new ConcurrentHashMap<>();
+    private final Set<String> claimedSourceIds = ConcurrentHashMap.newKeySet(); // Catches duplicates across chunks
+    private final LongAdder importedCustomers = new LongAdder();
+    private final LongAdder importedAccounts = new LongAdder();
+    private final LongAdder rejectedRows = new LongAdder();
+    private volatile BadRowListener badRowListener = (file, lineNumber, line, reason) -> { };
+
+    BulkImport(Bank bank) {
+        this.bank = bank;
+    }
+
+    public BulkImport onBadRow(BadRowListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Bad row listener cannot be null.");
+        }
+        this.badRowListener = listener;
+        return this;
+    }
+
+    public void importCustomers(Path file) throws IOException, InterruptedException {
+        importCustomers(file, ForkJoinPool.commonPool());
+    }
+
+    // Blocks until every row has been added or rejected
+    public void importCustomers(Path file, ExecutorService pool) throws IOException, InterruptedException {
+        load(file, CUSTOMERS_HEADER, pool, this::addCustomers);
+    }
+
+    public void importAccounts(Path file) throws IOException, InterruptedException {
+        importAccounts(file, ForkJoinPool.commonPool());
+    }
+
+    // Owners are looked up among the customers this import has loaded, so import them first
+    public void importAccounts(Path file, ExecutorService pool) throws IOException, InterruptedException {
+        load(file, ACCOUNTS_HEADER, pool, this::openAccounts);
+    }
+
+    // The bank's customer for a source-system id from the customers file
+    public Optional<Customer> getCustomer(String sourceId) {
+        return Optional.ofNullable(sourceId == null ? null : customersBySourceId.get(sourceId));
+    }
+
+    public long getImportedCustomers() {
+        return importedCustomers.sum();
+    }
+
+    public long getImportedAccounts() {
+        return importedAccounts.sum();
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows.sum();
+    }
+
+    @FunctionalInterface
+    private interface ChunkLoader {
+        void load(Chunk chunk);
+    }
+
+    // Lines of the file starting at firstLineNumber (1-based)
+    private static final class Chunk {
+        final Path file;
+        final long firstLineNumber;
+        final List<String> lines = new ArrayList<>(CHUNK_ROWS);
+
+        Chunk(Path file, long firstLineNumber) {
+            this.file = file;
+            this.firstLineNumber = firstLineNumber;
+        }
+    }
+
+    private void load(Path file, String header, ExecutorService pool, ChunkLoader loader)
+            throws IOException, InterruptedException {
+        int maxInFlight = 2 * Runtime.getRuntime().availableProcessors();
+        Semaphore inFlight = new Semaphore(maxInFlight); // Bounds memory: the reader waits for the pool
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String first = reader.readLine();
+            if (first == null || !first.trim().equalsIgnoreCase(header)) {
+                throw new IllegalArgumentException("File " + file + " must start with the header " + header + ".");
+            }
+            long lineNumber = 1;
+            Chunk chunk = new Chunk(file, lineNumber + 1);
+            for (String line = reader.readLine(); line != null && failure.get() == null; line = reader.readLine()) {
+                chunk.lines.add(line);
+                lineNumber++;
+                if (chunk.lines.size() == CHUNK_ROWS) {
+                    submit(chunk, pool, inFlight, failure, loader);
+                    chunk = new Chunk(file, lineNumber + 1);
+                }
+            }
+            if (!chunk.lines.isEmpty()) {
+                submit(chunk, pool, inFlight, failure, loader);
+            }
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlight); // Never leave chunks running behind the caller's back
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Bulk import of " + file + " failed.", failure.get());
+        }
+    }
+
+    private static void submit(Chunk chunk, ExecutorService pool, Semaphore inFlight,
+                               AtomicReference<RuntimeException> failure, ChunkLoader loader) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            pool.execute(() -> {
+                try {
+                    loader.load(chunk);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e); // E.g. the journal failed; stops reading
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release(); // Rejected by the pool
+            throw e;
+        }
+    }
+
+    private void addCustomers(Chunk chunk) {
+        List<String> sourceIds = new ArrayList<>(chunk.lines.size());
+        List<String> names = new ArrayList<>(chunk.lines.size());
+        for (int i = 0; i < chunk.lines.size(); i++) {
+            String[] fields = fields(chunk.lines.get(i), 2);
+            if (fields == BLANK) {
+                continue;
+            }
+            String reason = null;
+            if (fields == null) {
+                reason = "Expected 2 fields: " + CUSTOMERS_HEADER + ".";
+            } else if (fields[0].trim().isEmpty()) {
+                reason = "Customer id cannot be empty.";
+            } else if (fields[1].trim().isEmpty()) {
+                reason = "Customer name cannot be empty.";
+            } else if (!claimedSourceIds.add(fields[0].trim())) {
+                reason = "Duplicate customer id " + fields[0].trim() + ".";
+            }
+            if (reason != null) {
+                reject(chunk, i, reason);
+            } else {
+                sourceIds.add(fields[0].trim());
+                names.add(fields[1]);
+            }
+        }
+        if (names.isEmpty()) {
+            return;
+        }
+        List<Customer> added = bank.addCustomers(names);
+        for (int i = 0; i < added.size(); i++) {
+            customersBySourceId.put(sourceIds.get(i), added.get(i));
+        }
+        importedCustomers.add(added.size());
+    }
+
+    private void openAccounts(Chunk chunk) {
+        List<Account> unopened = new ArrayList<>(chunk.lines.size());
+        for (int i = 0; i < chunk.lines.size(); i++) {
+            String[] fields = fields(chunk.lines.get(i), 4);
+            if (fields == BLANK) {
+                continue;
+            }
+            if (fields == null) {
+                reject(chunk, i, "Expected 4 fields: " + ACCOUNTS_HEADER + ".");
+                continue;
+            }
+            Customer owner = customersBySourceId.get(fields[0].trim());
+            if (owner == null) {
+                reject(chunk, i, "Unknown customer id " + fields[0].trim() + ".");
+                continue;
+            }
+            try {
+                double balance = number(fields[2], "Balance");
+                double terms = number(fields[3], "Terms");
+                switch (fields[1].trim().toLowerCase(Locale.ROOT)) {
+                    case "savings" -> unopened.add(new SavingsAccount(owner, balance, terms));
+                    case "checking" -> unopened.add(new CheckingAccount(owner, balance, terms));
+                    default -> reject(chunk, i, "Account type must be savings or checking.");
+                }
+            } catch (IllegalArgumentException e) {
+                reject(chunk, i, e.getMessage()); // The same checks the bank applies one account at a time
+            }
+        }
+        if (!unopened.isEmpty()) {
+            importedAccounts.add(bank.openAccounts(unopened).size());
+        }
+    }
+
+    private void reject(Chunk chunk, int index, String reason) {
+        rejectedRows.increment();
+        badRowListener.onBadRow(chunk.file, chunk.firstLineNumber + index, chunk.lines.get(index), reason);
+    }
+
+    private static double number(String field, String what) {
+        try {
+            return Double.parseDouble(field.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(what + " is not a number.");
+        }
+    }
+
+    // Splits a CSV line into exactly count fields; BLANK for an empty line, null if it's malformed
+    static String[] fields(String line, int count) {
+        if (line.trim().isEmpty()) {
+            return BLANK;
+        }
+        String[] fields = new String[count];
+        int field = 0;
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    current.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && current.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                if (field == count - 1) {
+                    return null; // Too many fields
+                }
+                fields[field++] = current.toString();
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted || field != count - 1) {
+            return null; // Unterminated quote or too few fields
+        }
+        fields[field] = current.toString();
+        return fields;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Fans every balance change out to the bank's subscriptions. Accounts call changed under their lock
+// right after changing their balance; with nobody subscribed that costs one volatile read.
+final class ChangeFeed {
+    private static final Subscription[] EMPTY = new Subscription[0]; // Before NONE, which uses it
+
+    static final ChangeFeed NONE = new ChangeFeed(); // For accounts outside any bank; nobody can subscribe
+
+    private volatile Subscription[] subscriptions = EMPTY; // Copied on change; changes are rare
+
+    // Changes made after this returns are delivered; earlier ones are not
+    synchronized Subscription subscribe(BalanceChangeListener listener, int capacity, AsyncEventSink.OverflowPolicy overflowPolicy) {
+        Subscription subscription = new Subscription(this, listener, capacity, overflowPolicy);
+        Subscription[] grown = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+        grown[grown.length - 1] = subscription;
+        subscriptions = grown;
+        return subscription;
+    }
+
+    synchronized void remove(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] shrunk = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, shrunk, 0, i);
+                System.arraycopy(current, i + 1, shrunk, i, current.length - i - 1);
+                subscriptions = shrunk;
+                return;
+            }
+        }
+    }
+
+    // Caller holds the account's lock and has just changed its balance
+    void changed(Account account, long deltaMinor, long balanceMinor, long sequence) {
+        for (Subscription subscription : subscriptions) {
+            subscription.publish(account.getNumber(), deltaMinor, balanceMinor, sequence);
+        }
+    }
+}
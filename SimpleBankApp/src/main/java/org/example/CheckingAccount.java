@@ -1,41 +1,60 @@
 package org.example;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 public class CheckingAccount extends Account {
-    private double overdraftLimit; // Example: 100.0
+    private final long overdraftLimit; // In minor units. Example: 10000 (100.0)
 
     public CheckingAccount(Customer owner, double initialDeposit, double overdraftLimit) {
         super(owner, initialDeposit);
         if (overdraftLimit < 0) {
             throw new IllegalArgumentException("Overdraft limit cannot be negative.");
         }
-        this.overdraftLimit = overdraftLimit;
+        this.overdraftLimit = Money.toMinor(overdraftLimit);
+    }
+
+    // Restores an account from a journal or snapshot
+    CheckingAccount(long number, Customer owner, long balanceMinor, long overdraftLimitMinor) {
+        super(number, owner, balanceMinor);
+        this.overdraftLimit = overdraftLimitMinor;
+    }
+
+    // A view of a row of a ColumnarAccountStore
+    CheckingAccount(AccountColumns columns, int row, Customer owner, ReentrantLock lock, int lockRank) {
+        super(columns, row, owner, lock, lockRank);
+        this.overdraftLimit = columns.terms[row];
     }
 
     @Override
     public void withdraw(double amount) throws InsufficientFundsException {
-        if (amount <= 0) {
-            throw new IllegalArgumentException("Withdrawal amount must be positive.");
-        }
-        // Check if withdrawal is possible within balance + overdraft limit
-        if (balance + overdraftLimit >= amount) {
-            balance -= amount;
-            System.out.println("Withdrew: " + amount + " from Checking. New balance: " + balance);
-        } else {
-            throw new InsufficientFundsException("Insufficient funds including overdraft in Checking Account " + accountNumber + ". Available (incl. overdraft): " + (balance + overdraftLimit) + ", Requested: " + amount);
-        }
+        applyWithdrawal(toPositiveMinor(amount, "Withdrawal amount must be positive."));
+    }
+
+    @Override
+    String insufficientFundsMessage(long availableMinor, long requestedMinor) {
+        return "Insufficient funds including overdraft in Checking Account " + getAccountNumber() + ". Available (incl. overdraft): " + Money.toMajor(availableMinor) + ", Requested: " + Money.toMajor(requestedMinor);
+    }
+
+    @Override
+    long floorBalance() {
+        return -overdraftLimit; // Balance may go negative down to the overdraft limit
     }
 
     public double getOverdraftLimit() {
+        return Money.toMajor(overdraftLimit);
+    }
+
+    public long getOverdraftLimitMinor() {
         return overdraftLimit;
     }
 
     @Override
     public String toString() {
         return "CheckingAccount{" +
-                "accountNumber='" + accountNumber + '\'' +
+                "accountNumber='" + getAccountNumber() + '\'' +
                 ", owner=" + owner.getName() +
-                ", balance=" + balance +
-                ", overdraftLimit=" + overdraftLimit +
+                ", balance=" + Money.toMajor(getBalanceMinor()) +
+                ", overdraftLimit=" + Money.toMajor(overdraftLimit) +
                 '}';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,299 @@
+package org.example;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+// Keeps accounts as rows of primitive columns (see AccountColumns) instead of one object each, and
+// hands out Account views of those rows. A view is created per lookup and is cheap to throw away; two
+// views of the same account share its state and lock, and are equal.
+//
+// Per account this stores about 60 bytes of columns plus a few bytes of index, against well over 200
+// for an Account object with its number string, lock and map entries. Scans walk the columns in order.
+//
+// Accounts are guarded by striped locks rather than one lock each. The number index and owner links
+// change only under the write lock of a StampedLock; lookups read them optimistically without writing
+// shared memory, and only fall back to the read lock if an account was added meanwhile.
+final class ColumnarAccountStore implements AccountStore {
+    private static final int LOCK_STRIPES = 4096;
+    private static final int INITIAL_INDEX_SIZE = 1024;
+
+    private final EventSink events;
+    private final Journal journal;
+    private final Metrics metrics;
+    private final Versions versions;
+    private final Aggregates aggregates;
+    private final BalanceIndex balanceIndex;
+    private final ChangeFeed changeFeed;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final StampedLock structure = new StampedLock();
+
+    private volatile AccountColumns[] pages = new AccountColumns[0];
+    private volatile int size; // Rows below this are fully written
+
+    // Open addressing from account number to slot + 1 (0 marks a free entry), at most half full
+    private int[] index = new int[INITIAL_INDEX_SIZE];
+
+    // Owner index: each customer gets a slot, and their accounts are linked through nextOfOwner.
+    // The customer table only grows, and a slot is filled before any row refers to it.
+    private final Map<Customer, Integer> customerSlots = new HashMap<>();
+    private volatile Customer[] customerTable = new Customer[16];
+    private int customerCount;
+    private int[] firstAccount = new int[16];
+    private int[] lastAccount = new int[16];
+
+    ColumnarAccountStore(EventSink events, Journal journal, Metrics metrics, Versions versions, Aggregates aggregates,
+                         BalanceIndex balanceIndex, ChangeFeed changeFeed) {
+        this.events = events;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.versions = versions;
+        this.aggregates = aggregates;
+        this.balanceIndex = balanceIndex;
+        this.changeFeed = changeFeed;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Account add(Account account) {
+        long number = account.getNumber();
+        long stamp = structure.writeLock();
+        try {
+            int slot = size;
+            AccountColumns columns = page(slot);
+            int row = slot & AccountColumns.ROW_MASK;
+            columns.numbers[row] = number;
+            if (account instanceof SavingsAccount) {
+                SavingsAccount savings = (SavingsAccount) account;
+                columns.kinds[row] = AccountColumns.SAVINGS;
+                columns.terms[row] = savings.getInterestRateMillionths();
+                columns.interestRunIds[row] = savings.getLastInterestRunId();
+            } else if (account instanceof CheckingAccount) {
+                columns.kinds[row] = AccountColumns.CHECKING;
+                columns.terms[row] = ((CheckingAccount) account).getOverdraftLimitMinor();
+            } else {
+                throw new IllegalArgumentException("Cannot store account type " + account.getClass().getName() + ".");
+            }
+            columns.balances.set(row, account.getBalanceMinor());
+            columns.journalPositions[row] = account.getLastJournalPosition();
+            linkToOwner(columns, row, slot, account.getOwner());
+            putIndex(number, slot);
+            size = slot + 1;
+            Account view = view(columns, row);
+            aggregates.opened(view);
+            balanceIndex.opened(view);
+            return view;
+        } finally {
+            structure.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Account find(long number) {
+        long stamp = structure.tryOptimisticRead();
+        int slot = slotOf(number);
+        if (!structure.validate(stamp)) {
+            stamp = structure.readLock();
+            try {
+                slot = slotOf(number);
+            } finally {
+                structure.unlockRead(stamp);
+            }
+        }
+        return slot < 0 ? null : view(slot);
+    }
+
+    @Override
+    public boolean contains(Account account) {
+        AccountColumns columns = account.columns;
+        if (columns == null) {
+            return false;
+        }
+        AccountColumns[] current = pages;
+        return columns.pageIndex < current.length && current[columns.pageIndex] == columns;
+    }
+
+    @Override
+    public List<Account> accountsOf(Customer owner) {
+        List<Account> accounts = new ArrayList<>();
+        long stamp = structure.readLock();
+        try {
+            Integer customerSlot = customerSlots.get(owner);
+            if (customerSlot == null) {
+                return accounts;
+            }
+            for (int slot = firstAccount[customerSlot]; slot >= 0; ) {
+                AccountColumns columns = pages[slot >>> AccountColumns.PAGE_BITS];
+                int row = slot & AccountColumns.ROW_MASK;
+                accounts.add(view(columns, row));
+                slot = columns.nextOfOwner[row];
+            }
+        } finally {
+            structure.unlockRead(stamp);
+        }
+        return accounts;
+    }
+
+    // Walks the rows in slot order, creating each view as it goes
+    @Override
+    public Iterable<Account> accounts() {
+        return () -> new Iterator<Account>() {
+            private final int end = size;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public Account next() {
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                return view(next++);
+            }
+        };
+    }
+
+    // Only the savings rows' slots are collected; views are created as the run reaches them
+    @Override
+    public List<SavingsAccount> savingsAccounts() {
+        int end = size;
+        AccountColumns[] current = pages;
+        int[] slots = new int[end];
+        int count = 0;
+        for (int slot = 0; slot < end; slot++) {
+            if (current[slot >>> AccountColumns.PAGE_BITS].kinds[slot & AccountColumns.ROW_MASK] == AccountColumns.SAVINGS) {
+                slots[count++] = slot;
+            }
+        }
+        int[] savings = Arrays.copyOf(slots, count);
+        return new AbstractList<SavingsAccount>() {
+            @Override
+            public SavingsAccount get(int i) {
+                return (SavingsAccount) view(savings[i]);
+            }
+
+            @Override
+            public int size() {
+                return savings.length;
+            }
+        };
+    }
+
+    private Account view(int slot) {
+        return view(pages[slot >>> AccountColumns.PAGE_BITS], slot & AccountColumns.ROW_MASK);
+    }
+
+    private Account view(AccountColumns columns, int row) {
+        int stripe = columns.slot(row) & (LOCK_STRIPES - 1);
+        Customer owner = customerTable[columns.owners[row]];
+        Account account = columns.kinds[row] == AccountColumns.SAVINGS
+                ? new SavingsAccount(columns, row, owner, locks[stripe], stripe)
+                : new CheckingAccount(columns, row, owner, locks[stripe], stripe);
+        account.attach(events, journal, metrics, versions, aggregates, balanceIndex, changeFeed);
+        return account;
+    }
+
+    // Slot holding the account number, or -1. May run concurrently with add under an optimistic read,
+    // so it must not fail or loop forever on a half-updated index; the caller retries if it was.
+    private int slotOf(long number) {
+        int[] table = index;
+        AccountColumns[] current = pages;
+        int mask = table.length - 1;
+        for (int i = hash(number) & mask, probes = 0; probes < table.length; i = (i + 1) & mask, probes++) {
+            int entry = table[i];
+            if (entry == 0) {
+                return -1;
+            }
+            int slot = entry - 1;
+            int page = slot >>> AccountColumns.PAGE_BITS;
+            if (page >= current.length || current[page] == null) {
+                return -1; // Torn read; the caller's validate fails
+            }
+            if (current[page].numbers[slot & AccountColumns.ROW_MASK] == number) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // Caller holds the write lock
+    private AccountColumns page(int slot) {
+        int pageIndex = slot >>> AccountColumns.PAGE_BITS;
+        AccountColumns[] current = pages;
+        if (pageIndex == current.length) {
+            AccountColumns[] grown = Arrays.copyOf(current, pageIndex + 1);
+            grown[pageIndex] = new AccountColumns(pageIndex);
+            pages = grown;
+            return grown[pageIndex];
+        }
+        return current[pageIndex];
+    }
+
+    // Caller holds the write lock
+    private void putIndex(long number, int slot) {
+        if ((size + 1) * 2 > index.length) {
+            int[] grown = new int[index.length * 2];
+            for (int entry : index) {
+                if (entry != 0) {
+                    insert(grown, pages[(entry - 1) >>> AccountColumns.PAGE_BITS].numbers[(entry - 1) & AccountColumns.ROW_MASK], entry);
+                }
+            }
+            index = grown;
+        }
+        insert(index, number, slot + 1);
+    }
+
+    private static void insert(int[] table, long number, int entry) {
+        int mask = table.length - 1;
+        int i = hash(number) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = entry;
+    }
+
+    // Caller holds the write lock. Appends the account to its owner's list, keeping opening order.
+    private void linkToOwner(AccountColumns columns, int row, int slot, Customer owner) {
+        Integer existing = customerSlots.get(owner);
+        columns.nextOfOwner[row] = -1;
+        if (existing == null) {
+            int customerSlot = customerCount++;
+            if (customerSlot == firstAccount.length) {
+                firstAccount = Arrays.copyOf(firstAccount, customerSlot * 2);
+                lastAccount = Arrays.copyOf(lastAccount, customerSlot * 2);
+                Customer[] grown = Arrays.copyOf(customerTable, customerSlot * 2);
+                grown[customerSlot] = owner;
+                customerTable = grown;
+            } else {
+                customerTable[customerSlot] = owner;
+            }
+            customerSlots.put(owner, customerSlot);
+            firstAccount[customerSlot] = slot;
+            lastAccount[customerSlot] = slot;
+            columns.owners[row] = customerSlot;
+            return;
+        }
+        int customerSlot = existing;
+        int last = lastAccount[customerSlot];
+        pages[last >>> AccountColumns.PAGE_BITS].nextOfOwner[last & AccountColumns.ROW_MASK] = slot;
+        lastAccount[customerSlot] = slot;
+        columns.owners[row] = customerSlot;
+    }
+
+    private static int hash(long number) {
+        long h = number * 0x9E3779B97F4A7C15L; // Spreads sequential account numbers over the table
+        return (int) (h ^ (h >>> 32));
+    }
+}
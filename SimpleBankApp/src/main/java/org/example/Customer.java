@@ -1,22 +1,85 @@
 package org.example;
 
-import java.util.Objects;
-import java.util.UUID; // For a unique ID
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.UUID; // For the id's string form
 
 public class Customer {
-    private final String id;
-    private String name;
+    // Ids are version 4 UUIDs made of a random per-process prefix and a sequence number from per-thread
+    // blocks, so creating customers neither locks nor draws from SecureRandom each time
+    private static final long PROCESS_PREFIX = (new SecureRandom().nextLong() & ~0xF000L) | 0x4000L; // Version 4
+    private static final long VARIANT_MASK = 0xC000000000000000L;
+    private static final long VARIANT = 0x8000000000000000L; // IETF variant
+    private static final IdAllocator SEQUENCE = new IdAllocator(1);
+
+    private final long idHigh;
+    private final long idLow;
+    private String id; // Formatted on first use; a race only formats it twice
+    private volatile String name;
+    final LongAdder netWorth = new LongAdder(); // Kept by the bank's Aggregates as the customer's balances change
+    private NameIndex names; // The bank's name index once the customer is added to one; guarded by this
 
     public Customer(String name) {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Customer name cannot be empty.");
         }
-        this.id = UUID.randomUUID().toString(); // Simple unique ID
+        this.idHigh = PROCESS_PREFIX;
+        this.idLow = VARIANT | SEQUENCE.next();
         this.name = name;
     }
 
+    // Restores a customer from a journal or snapshot, keeping the original id
+    Customer(String id, String name) {
+        this(UUID.fromString(id), name);
+    }
+
+    private Customer(UUID id, String name) {
+        this(id.getMostSignificantBits(), id.getLeastSignificantBits(), name);
+    }
+
+    Customer(long idHigh, long idLow, String name) {
+        this(idHigh, idLow);
+        this.name = name;
+        if (idHigh == PROCESS_PREFIX) {
+            SEQUENCE.reserve(idLow & ~VARIANT_MASK); // New customers must not reuse restored ids
+        }
+    }
+
+    // Reserves nothing: keys are built from ids clients send, which must not move the sequence
+    private Customer(long idHigh, long idLow) {
+        this.idHigh = idHigh;
+        this.idLow = idLow;
+    }
+
+    // A stand-in with just the id, for looking customers up by id; null if the id isn't valid
+    static Customer key(String id) {
+        try {
+            UUID uuid = UUID.fromString(id);
+            return key(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static Customer key(long idHigh, long idLow) {
+        return new Customer(idHigh, idLow);
+    }
+
     public String getId() {
-        return id;
+        String formatted = id;
+        if (formatted == null) {
+            formatted = new UUID(idHigh, idLow).toString();
+            id = formatted;
+        }
+        return formatted;
+    }
+
+    long getIdHigh() {
+        return idHigh;
+    }
+
+    long getIdLow() {
+        return idLow;
     }
 
     public String getName() {
@@ -27,7 +90,18 @@ public class Customer {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Customer name cannot be empty.");
         }
-        this.name = name;
+        synchronized (this) { // Racing renames reach the index in the order they took effect
+            String oldName = this.name;
+            this.name = name;
+            if (names != null) {
+                names.renamed(this, oldName, name);
+            }
+        }
+    }
+
+    // Called by the name index once it holds the customer under its current name; caller holds this
+    void indexedBy(NameIndex names) {
+        this.names = names;
     }
 
     // Good practice to override equals and hashCode if using IDs
@@ -36,19 +110,19 @@ public class Customer {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Customer customer = (Customer) o;
-        return Objects.equals(id, customer.id);
+        return idHigh == customer.idHigh && idLow == customer.idLow;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Long.hashCode(idHigh ^ idLow);
     }
 
     @Override
     public String toString() {
         return "Customer{" +
-                "id='" + id + '\'' +
+                "id='" + getId() + '\'' +
                 ", name='" + name + '\'' +
                 '}';
     }
-}
\ No newline at end of file
+}
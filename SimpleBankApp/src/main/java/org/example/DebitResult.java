@@ -0,0 +1,53 @@
+package org.example;
+
+// Outcome of Account.tryWithdraw and Bank.tryTransfer: a declined debit is an ordinary result, not an exception.
+// A decline carries the funds that were available when it was refused, read under the same lock, so it
+// can't disagree with the decision the way a later getAvailableFunds call can. Approvals share one
+// instance, so only declines allocate (a few bytes, against an exception's stack trace and message).
+public final class DebitResult {
+    public static final DebitResult APPROVED = new DebitResult(true, 0);
+
+    private final boolean approved;
+    private final long availableFundsMinor;
+
+    private DebitResult(boolean approved, long availableFundsMinor) {
+        this.approved = approved;
+        this.availableFundsMinor = availableFundsMinor;
+    }
+
+    // A debit refused because the account could give only availableFundsMinor, overdraft included
+    public static DebitResult insufficientFunds(long availableFundsMinor) {
+        return new DebitResult(false, availableFundsMinor);
+    }
+
+    public boolean isApproved() {
+        return approved;
+    }
+
+    // Funds the account could give when the debit was declined, including any overdraft; 0 if approved
+    public double getAvailableFunds() {
+        return Money.toMajor(availableFundsMinor);
+    }
+
+    public long getAvailableFundsMinor() {
+        return availableFundsMinor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DebitResult that = (DebitResult) o;
+        return approved == that.approved && availableFundsMinor == that.availableFundsMinor;
+    }
+
+    @Override
+    public int hashCode() {
+        return Boolean.hashCode(approved) * 31 + Long.hashCode(availableFundsMinor);
+    }
+
+    @Override
+    public String toString() {
+        return approved ? "APPROVED" : "INSUFFICIENT_FUNDS{availableFunds=" + getAvailableFunds() + "}";
+    }
+}
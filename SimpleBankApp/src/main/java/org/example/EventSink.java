@@ -0,0 +1,21 @@
+package org.example;
+
+// Receives one structured event per operation. Events are passed as primitives plus an existing
+// String (account number or customer id), so publishing never has to allocate.
+// Implementations must be thread-safe and should not block: accounts publish while holding their lock.
+@FunctionalInterface
+public interface EventSink {
+    EventSink NO_OP = (type, subject, amountMinor, balanceMinor) -> {
+        // Discards everything
+    };
+
+    void publish(EventType type, String subject, long amountMinor, long balanceMinor);
+
+    // Publishes each event to this sink and then to next, e.g. a TransactionHistory and an AsyncEventSink
+    default EventSink andThen(EventSink next) {
+        return (type, subject, amountMinor, balanceMinor) -> {
+            publish(type, subject, amountMinor, balanceMinor);
+            next.publish(type, subject, amountMinor, balanceMinor);
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package org.example;
+
+// The kinds of operation Bank and Account publish to an EventSink
+public enum EventType {
+    CUSTOMER_ADDED,
+    SAVINGS_OPENED,
+    CHECKING_OPENED,
+    DEPOSIT,
+    WITHDRAWAL,
+    INTEREST,
+    TRANSFER_OUT,
+    TRANSFER_IN
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+import java.io.PrintStream;
+
+// Consumes events on AsyncEventSink's background thread, so it may be slow or allocate freely
+@FunctionalInterface
+public interface EventWriter {
+
+    void write(EventType type, String subject, long amountMinor, long balanceMinor);
+
+    // Called after each drained batch
+    default void flush() {
+    }
+
+    // One line per event, e.g. "DEPOSIT 1001 amount=50.0 balance=150.0"
+    static EventWriter printTo(PrintStream out) {
+        return new EventWriter() {
+            private final StringBuilder line = new StringBuilder(64); // Only used by the writer thread
+
+            @Override
+            public void write(EventType type, String subject, long amountMinor, long balanceMinor) {
+                line.setLength(0);
+                line.append(type).append(' ').append(subject)
+                        .append(" amount=").append(Money.toMajor(amountMinor))
+                        .append(" balance=").append(Money.toMajor(balanceMinor))
+                        .append(System.lineSeparator());
+                out.append(line);
+            }
+
+            @Override
+            public void flush() {
+                out.flush();
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Keeps every account as its own object in concurrent maps: lock-free lookups, and different
+// accounts never contend.
+final class HeapAccountStore implements AccountStore {
+    private final Map<Long, Account> accountsByNumber = new ConcurrentHashMap<>();
+    private final Map<Customer, List<Account>> accountsByOwner = new ConcurrentHashMap<>();
+    private final EventSink events;
+    private final Journal journal;
+    private final Metrics metrics;
+    private final Versions versions;
+    private final Aggregates aggregates;
+    private final BalanceIndex balanceIndex;
+    private final ChangeFeed changeFeed;
+
+    HeapAccountStore(EventSink events, Journal journal, Metrics metrics, Versions versions, Aggregates aggregates,
+                     BalanceIndex balanceIndex, ChangeFeed changeFeed) {
+        this.events = events;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.versions = versions;
+        this.aggregates = aggregates;
+        this.balanceIndex = balanceIndex;
+        this.changeFeed = changeFeed;
+    }
+
+    // Keeps both indexes in step; the owner's list is tiny, so copy-on-write is cheap and lock-free to read
+    @Override
+    public Account add(Account account) {
+        account.attach(events, journal, metrics, versions, aggregates, balanceIndex, changeFeed);
+        aggregates.opened(account);
+        balanceIndex.opened(account);
+        accountsByNumber.put(account.getNumber(), account);
+        accountsByOwner.computeIfAbsent(account.getOwner(), owner -> new CopyOnWriteArrayList<>()).add(account);
+        return account;
+    }
+
+    @Override
+    public Account find(long number) {
+        return accountsByNumber.get(number);
+    }
+
+    @Override
+    public boolean contains(Account account) {
+        return accountsByNumber.get(account.getNumber()) == account;
+    }
+
+    @Override
+    public List<Account> accountsOf(Customer owner) {
+        List<Account> accounts = accountsByOwner.get(owner);
+        return accounts == null ? Collections.emptyList() : new ArrayList<>(accounts);
+    }
+
+    @Override
+    public Iterable<Account> accounts() {
+        return accountsByNumber.values();
+    }
+
+    @Override
+    public List<SavingsAccount> savingsAccounts() {
+        List<SavingsAccount> savings = new ArrayList<>();
+        for (Account account : accountsByNumber.values()) {
+            if (account instanceof SavingsAccount) {
+                savings.add((SavingsAccount) account);
+            }
+        }
+        return savings;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hands out unique ids without every caller contending on one counter: each thread takes a block of
+// BLOCK_SIZE ids from the shared counter at a time and allocates from it privately. Ids are unique and
+// increase per thread, but threads interleave, and ids left in a thread's block are never used.
+//
+// Ids restored from a journal or snapshot are reserved, so they are never handed out again. A block
+// taken before a reservation is dropped if its next id isn't above the reserved one.
+final class IdAllocator {
+    private static final int BLOCK_SIZE = 1024;
+
+    private final AtomicLong nextBlock;
+    private final AtomicLong floor; // Lowest id that may still be handed out
+    private final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[2]); // {next id, end of block}
+
+    IdAllocator(long first) {
+        this.nextBlock = new AtomicLong(first);
+        this.floor = new AtomicLong(first);
+    }
+
+    long next() {
+        long[] block = blocks.get();
+        long id = block[0];
+        if (id >= block[1] || id < floor.get()) {
+            id = nextBlock.getAndAdd(BLOCK_SIZE);
+            block[1] = id + BLOCK_SIZE;
+        }
+        block[0] = id + 1;
+        return id;
+    }
+
+    // Makes sure id (and everything below it) is never handed out from now on
+    void reserve(long id) {
+        nextBlock.accumulateAndGet(id + 1, Math::max);
+        floor.accumulateAndGet(id + 1, Math::max);
+    }
+}
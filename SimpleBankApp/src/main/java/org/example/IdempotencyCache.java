@@ -0,0 +1,152 @@
+package org.example;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Outcomes of the bank's keyed deposits, withdrawals and transfers, so a client that retries after a
+// timeout gets the first attempt's outcome back instead of moving the money twice. A retry that arrives
+// while the first attempt is still running waits for it.
+//
+// Keys are remembered for a fixed time, and at most maxEntries at once: entries sit in a queue in the
+// order they were added, which (with one time to live for all) is also the order they expire in, so
+// eviction only ever looks at the head. Each keyed call costs one map insert and one queue append, plus
+// the removal of whatever it evicts, whatever the number of keys.
+//
+// Failures are remembered too, and thrown again to retries: a request that failed after its checks (e.g.
+// the journal failed once the balance had moved) may have changed something, so running it again could
+// post twice. Only IllegalArgumentException, which the bank throws before changing anything, gives the key
+// back for another try. Keys live in memory only and are forgotten on restart.
+final class IdempotencyCache {
+    static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(24);
+    static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private final long timeToLiveNanos;
+    private final int maxEntries;
+    private final LongSupplier clock; // Nanoseconds, like System.nanoTime
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger(); // Bounds the queue, so removed entries count until polled
+
+    // What a key was used for and how it turned out
+    private static final class Entry {
+        final String key;
+        final Operation operation;
+        final long accountNumber;
+        final long targetAccountNumber; // 0 unless a transfer
+        final long amountMinor;
+        final long addedAt;
+        final CompletableFuture<DebitResult> outcome = new CompletableFuture<>();
+
+        Entry(String key, Operation operation, long accountNumber, long targetAccountNumber, long amountMinor, long addedAt) {
+            this.key = key;
+            this.operation = operation;
+            this.accountNumber = accountNumber;
+            this.targetAccountNumber = targetAccountNumber;
+            this.amountMinor = amountMinor;
+            this.addedAt = addedAt;
+        }
+
+        boolean sameRequestAs(Entry other) {
+            return operation == other.operation && accountNumber == other.accountNumber
+                    && targetAccountNumber == other.targetAccountNumber && amountMinor == other.amountMinor;
+        }
+    }
+
+    IdempotencyCache() {
+        this(DEFAULT_TIME_TO_LIVE, DEFAULT_MAX_ENTRIES, System::nanoTime);
+    }
+
+    IdempotencyCache(Duration timeToLive, int maxEntries, LongSupplier clock) {
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive.");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Maximum entries must be positive.");
+        }
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    // Runs request unless key was used in the last time to live, in which case it returns the outcome
+    // (or throws the failure) from then. A key reused for a different request is refused with
+    // IllegalArgumentException.
+    DebitResult execute(String key, Operation operation, long accountNumber, long targetAccountNumber, long amountMinor,
+                        Supplier<DebitResult> request) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Idempotency key cannot be empty.");
+        }
+        long now = clock.getAsLong();
+        Entry entry = new Entry(key, operation, accountNumber, targetAccountNumber, amountMinor, now);
+        Entry existing;
+        while ((existing = entries.putIfAbsent(key, entry)) != null) {
+            if (!isExpired(existing, now)) {
+                return outcomeOf(existing, entry);
+            }
+            entries.remove(key, existing); // Expired but not yet evicted; its queue slot goes in turn
+        }
+        insertionOrder.add(entry);
+        queued.incrementAndGet();
+        evict(now);
+        DebitResult result;
+        try {
+            result = request.get();
+        } catch (IllegalArgumentException e) {
+            entries.remove(key, entry); // Refused before anything changed, so the key may be tried again
+            entry.outcome.completeExceptionally(e);
+            throw e;
+        } catch (Throwable e) {
+            entry.outcome.completeExceptionally(e); // Kept: retries get this failure (Errors too), not a second attempt
+            throw e;
+        }
+        entry.outcome.complete(result);
+        return result;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static DebitResult outcomeOf(Entry existing, Entry retry) {
+        if (!existing.sameRequestAs(retry)) {
+            throw new IllegalArgumentException("Idempotency key " + retry.key + " was already used for a different request.");
+        }
+        try {
+            return existing.outcome.join(); // Waits if the first attempt is still running
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause(); // The same failure the first attempt saw
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.addedAt >= timeToLiveNanos;
+    }
+
+    // Drops the oldest entries while they have expired or there are too many. Racing callers can each
+    // poll after checking the same head, so an entry may occasionally go slightly before its time.
+    private void evict(long now) {
+        for (Entry oldest = insertionOrder.peek(); oldest != null; oldest = insertionOrder.peek()) {
+            if (!isExpired(oldest, now) && queued.get() <= maxEntries) {
+                return;
+            }
+            Entry polled = insertionOrder.poll();
+            if (polled == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            entries.remove(polled.key, polled);
+        }
+    }
+}
@@ -1,7 +1,46 @@
 package org.example;
 
 public class InsufficientFundsException extends Exception { // Or RuntimeException if you prefer unchecked
+    private final Account account; // Null when created with a ready-made message
+    private final long availableMinor;
+    private final long requestedMinor;
+    private String message; // Formatted on first use
+
     public InsufficientFundsException(String message) {
         super(message);
+        this.account = null;
+        this.availableMinor = 0;
+        this.requestedMinor = 0;
+    }
+
+    // Thrown by accounts for routine declines: no stack trace, and the message is only built if someone
+    // asks for it, so declining costs about as little as succeeding
+    InsufficientFundsException(Account account, long availableMinor, long requestedMinor) {
+        super(null, null, false, false);
+        this.account = account;
+        this.availableMinor = availableMinor;
+        this.requestedMinor = requestedMinor;
+    }
+
+    @Override
+    public String getMessage() {
+        if (account == null) {
+            return super.getMessage();
+        }
+        String formatted = message;
+        if (formatted == null) {
+            formatted = account.insufficientFundsMessage(availableMinor, requestedMinor);
+            message = formatted; // A race only formats the same string twice
+        }
+        return formatted;
+    }
+
+    // Funds the account could give at the time, including any overdraft; 0 if created with just a message
+    public long getAvailableFundsMinor() {
+        return availableMinor;
+    }
+
+    public long getRequestedMinor() {
+        return requestedMinor;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+// End-of-day interest posting across all savings accounts, split into chunks on a fork/join pool.
+// Each account records the last run that posted to it, so a run that is cancelled or interrupted
+// can be resumed by executing a new run with the same id: accounts already done are skipped.
+// Create runs through Bank.newInterestRun; run ids must increase from one day to the next.
+public class InterestRun {
+
+    // Called after every chunk, possibly from several pool threads at once
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long processedAccounts, long totalAccounts);
+    }
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private final long runId;
+    private final List<SavingsAccount> accounts; // Random access
+    private final Journal journal; // Null when the bank only lives in memory
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder posted = new LongAdder();
+    private final LongAdder interestPosted = new LongAdder();
+    private volatile ProgressListener progressListener = (processedAccounts, totalAccounts) -> { };
+    private volatile boolean cancelled;
+
+    InterestRun(long runId, List<SavingsAccount> accounts, Journal journal) {
+        if (runId <= 0) {
+            throw new IllegalArgumentException("Run id must be positive.");
+        }
+        this.runId = runId;
+        this.accounts = accounts;
+        this.journal = journal;
+    }
+
+    public InterestRun onProgress(ProgressListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Progress listener cannot be null.");
+        }
+        this.progressListener = listener;
+        return this;
+    }
+
+    public void execute() throws InterruptedException {
+        execute(ForkJoinPool.commonPool());
+    }
+
+    // Blocks until every account is processed or the run is cancelled.
+    // If the calling thread is interrupted, the run is cancelled and the interrupt rethrown.
+    public void execute(ForkJoinPool pool) throws InterruptedException {
+        try {
+            pool.submit(new Chunk(0, accounts.size())).get();
+        } catch (InterruptedException e) {
+            cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Interest run " + runId + " failed.", e.getCause());
+        }
+    }
+
+    // Stops the run after the chunks in progress; resume later with a run of the same id
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isComplete() {
+        return processed.sum() == accounts.size();
+    }
+
+    public long getRunId() {
+        return runId;
+    }
+
+    public long getTotalAccounts() {
+        return accounts.size();
+    }
+
+    // Accounts looked at so far, including ones an earlier attempt of this run already posted to
+    public long getProcessedAccounts() {
+        return processed.sum();
+    }
+
+    // Accounts this run actually posted to
+    public long getPostedAccounts() {
+        return posted.sum();
+    }
+
+    public long getInterestPostedMinor() {
+        return interestPosted.sum();
+    }
+
+    private final class Chunk extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            if (to - from > CHUNK_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunk(from, middle), new Chunk(middle, to));
+                return;
+            }
+            long postedHere = 0;
+            long journalPosition = 0;
+            for (int i = from; i < to; i++) {
+                long position = accounts.get(i).postInterest(runId, interestPosted);
+                if (position >= 0) {
+                    postedHere++;
+                    journalPosition = Math.max(journalPosition, position);
+                }
+            }
+            if (journalPosition > 0) {
+                journal.awaitDurable(journalPosition); // One group commit for the whole chunk, before it counts as done
+            }
+            posted.add(postedHere);
+            processed.add(to - from);
+            progressListener.onProgress(processed.sum(), accounts.size());
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// Append-only write-ahead journal of every state change in a Bank, so it can be rebuilt after a restart.
+// Each record is [int body length][int CRC32 of body][body]; the body starts with a record type byte.
+//
+// Group commit: operations append their record to an in-memory buffer (while holding their account
+// lock, so the journal order matches the order changes were applied) and then wait for it to become
+// durable after releasing the lock. Only one thread writes and fsyncs at a time; everything appended
+// while it was busy goes out with the next single write + fsync, so concurrent operations share syncs.
+public class Journal implements AutoCloseable {
+
+    private static final byte CUSTOMER_ADDED = 1;
+    private static final byte SAVINGS_OPENED = 2;
+    private static final byte CHECKING_OPENED = 3;
+    private static final byte DEPOSIT = 4;
+    private static final byte WITHDRAWAL = 5;
+    private static final byte INTEREST = 6;
+    private static final byte TRANSFER = 7;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    // Receives journal records in order during replay. Each call gets the journal position just past
+    // the record, the same value the log method returned when it was appended.
+    interface Replayer {
+        void customerAdded(long position, String customerId, String name);
+
+        void savingsOpened(long position, String accountNumber, String ownerId, long balanceMinor, long interestRate);
+
+        void checkingOpened(long position, String accountNumber, String ownerId, long balanceMinor, long overdraftLimitMinor);
+
+        void deposited(long position, String accountNumber, long amountMinor);
+
+        void withdrew(long position, String accountNumber, long amountMinor);
+
+        void interestPosted(long position, String accountNumber, long amountMinor, long runId);
+
+        void transferred(long position, String fromAccountNumber, String toAccountNumber, long amountMinor);
+    }
+
+    private final FileChannel channel;
+    private final ReentrantLock appendLock = new ReentrantLock(); // Guards pending and appendedPosition
+    private final ReentrantLock flushLock = new ReentrantLock();  // Held by the one thread writing and syncing
+    private final CRC32 crc = new CRC32(); // Guarded by appendLock
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE); // Guarded by flushLock
+    private long appendedPosition;
+    private volatile long durablePosition;
+    private volatile IOException failure;
+    private final LongAdder syncs = new LongAdder();
+
+    private Journal(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.appendedPosition = channel.size();
+        this.durablePosition = appendedPosition;
+        channel.position(appendedPosition); // Never overwrite what is already there
+    }
+
+    // Opens (or creates) a journal file. Call replay before appending to an existing one.
+    public static Journal open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Journal(channel);
+    }
+
+    // Bytes known to be on disk
+    public long getDurablePosition() {
+        return durablePosition;
+    }
+
+    // Number of fsyncs so far; with group commit this grows far slower than the number of operations
+    public long getSyncCount() {
+        return syncs.sum();
+    }
+
+    // Position just past the last appended record, durable or not
+    long getAppendedPosition() {
+        appendLock.lock();
+        try {
+            return appendedPosition;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Feeds every complete record from fromPosition on (0, or a position a snapshot recorded) to the
+    // replayer. A torn or corrupt tail (a crash mid-write) is cut off.
+    void replay(Replayer replayer, long fromPosition) throws IOException {
+        if (fromPosition < 0 || fromPosition > channel.size()) {
+            throw new IOException("Journal is shorter than the snapshot expects (" + channel.size() + " < " + fromPosition + ").");
+        }
+        long validEnd = fromPosition;
+        channel.position(fromPosition);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        CRC32 check = new CRC32();
+        byte[] body = new byte[256];
+        while (true) {
+            int length;
+            int checksum;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+                if (length <= 0 || length > channel.size() - validEnd - HEADER_SIZE) {
+                    break;
+                }
+                if (body.length < length) {
+                    body = new byte[Math.max(length, body.length * 2)];
+                }
+                in.readFully(body, 0, length);
+            } catch (EOFException e) {
+                break;
+            }
+            check.reset();
+            check.update(body, 0, length);
+            if ((int) check.getValue() != checksum) {
+                break;
+            }
+            validEnd += HEADER_SIZE + length;
+            apply(ByteBuffer.wrap(body, 0, length), validEnd, replayer);
+        }
+        if (validEnd < channel.size()) {
+            channel.truncate(validEnd);
+            channel.force(false);
+        }
+        channel.position(validEnd);
+        appendedPosition = validEnd;
+        durablePosition = validEnd;
+    }
+
+    long logCustomerAdded(String customerId, String name) {
+        appendLock.lock();
+        try {
+            int start = beginRecord(CUSTOMER_ADDED);
+            putString(customerId);
+            putString(name);
+            return endRecord(start);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    long logSavingsOpened(String accountNumber, String ownerId, long balanceMinor, long interestRate) {
+        return logOpened(SAVINGS_OPENED, accountNumber, ownerId, balanceMinor, interestRate);
+    }
+
+    long logCheckingOpened(String accountNumber, String ownerId, long balanceMinor, long overdraftLimitMinor) {
+        return logOpened(CHECKING_OPENED, accountNumber, ownerId, balanceMinor, overdraftLimitMinor);
+    }
+
+    long logDeposit(String accountNumber, long amountMinor) {
+        return logAmount(DEPOSIT, accountNumber, amountMinor);
+    }
+
+    long logWithdrawal(String accountNumber, long amountMinor) {
+        return logAmount(WITHDRAWAL, accountNumber, amountMinor);
+    }
+
+    long logInterest(String accountNumber, long amountMinor, long runId) {
+        appendLock.lock();
+        try {
+            int start = beginRecord(INTEREST);
+            putString(accountNumber);
+            ensureCapacity(16);
+            pending.putLong(amountMinor).putLong(runId);
+            return endRecord(start);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    long logTransfer(String fromAccountNumber, String toAccountNumber, long amountMinor) {
+        appendLock.lock();
+        try {
+            int start = beginRecord(TRANSFER);
+            putString(fromAccountNumber);
+            putString(toAccountNumber);
+            ensureCapacity(8);
+            pending.putLong(amountMinor);
+            return endRecord(start);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Blocks until everything up to position is on disk, writing and syncing it if no one else is
+    void awaitDurable(long position) {
+        if (durablePosition >= position) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (durablePosition >= position) {
+                return; // The previous leader's sync covered us
+            }
+            checkNotFailed();
+            ByteBuffer toWrite;
+            long end;
+            appendLock.lock();
+            try {
+                toWrite = pending;
+                pending = spare;
+                end = appendedPosition;
+            } finally {
+                appendLock.unlock();
+            }
+            toWrite.flip();
+            while (toWrite.hasRemaining()) {
+                channel.write(toWrite);
+            }
+            channel.force(false);
+            toWrite.clear();
+            spare = toWrite;
+            syncs.increment();
+            durablePosition = end;
+        } catch (IOException e) {
+            failure = e; // Later appends can't be made durable in order any more
+            throw new UncheckedIOException("Journal write failed.", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Makes everything appended so far durable and closes the file
+    @Override
+    public void close() throws IOException {
+        long end;
+        appendLock.lock();
+        try {
+            end = appendedPosition;
+        } finally {
+            appendLock.unlock();
+        }
+        if (failure == null) {
+            awaitDurable(end);
+        }
+        channel.close();
+    }
+
+    private long logOpened(byte type, String accountNumber, String ownerId, long balanceMinor, long terms) {
+        appendLock.lock();
+        try {
+            int start = beginRecord(type);
+            putString(accountNumber);
+            putString(ownerId);
+            ensureCapacity(16);
+            pending.putLong(balanceMinor).putLong(terms);
+            return endRecord(start);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long logAmount(byte type, String accountNumber, long amountMinor) {
+        appendLock.lock();
+        try {
+            int start = beginRecord(type);
+            putString(accountNumber);
+            ensureCapacity(8);
+            pending.putLong(amountMinor);
+            return endRecord(start);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Reserves the header and writes the type byte; caller holds appendLock
+    private int beginRecord(byte type) {
+        checkNotFailed();
+        ensureCapacity(HEADER_SIZE + 1);
+        int start = pending.position();
+        pending.position(start + HEADER_SIZE);
+        pending.put(type);
+        return start;
+    }
+
+    // Fills in the header and returns the journal position just past the record; caller holds appendLock
+    private long endRecord(int start) {
+        int bodyStart = start + HEADER_SIZE;
+        int length = pending.position() - bodyStart;
+        crc.reset();
+        crc.update(pending.array(), pending.arrayOffset() + bodyStart, length);
+        pending.putInt(start, length);
+        pending.putInt(start + 4, (int) crc.getValue());
+        appendedPosition += HEADER_SIZE + length;
+        return appendedPosition;
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(4 + bytes.length);
+        pending.putInt(bytes.length).put(bytes);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+    }
+
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal is unusable after an earlier write failure.", failure);
+        }
+    }
+
+    private static void apply(ByteBuffer body, long position, Replayer replayer) {
+        byte type = body.get();
+        switch (type) {
+            case CUSTOMER_ADDED:
+                replayer.customerAdded(position, getString(body), getString(body));
+                break;
+            case SAVINGS_OPENED:
+                replayer.savingsOpened(position, getString(body), getString(body), body.getLong(), body.getLong());
+                break;
+            case CHECKING_OPENED:
+                replayer.checkingOpened(position, getString(body), getString(body), body.getLong(), body.getLong());
+                break;
+            case DEPOSIT:
+                replayer.deposited(position, getString(body), body.getLong());
+                break;
+            case WITHDRAWAL:
+                replayer.withdrew(position, getString(body), body.getLong());
+                break;
+            case INTEREST:
+                replayer.interestPosted(position, getString(body), body.getLong(), body.getLong());
+                break;
+            case TRANSFER:
+                replayer.transferred(position, getString(body), getString(body), body.getLong());
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type: " + type);
+        }
+    }
+
+    private static String getString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getInt()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
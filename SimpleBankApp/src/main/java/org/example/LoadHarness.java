@@ -0,0 +1,216 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives a Bank in-process with a Workload, for load tests above the level of the JMH microbenchmarks.
+//
+// run sends the workload's operations from a pool of threads at a target rate: operation i is due at
+// start + i / rate, whichever thread picks it up. Latency is measured from when an operation was due,
+// not from when a thread got round to it, so a stall that holds up the operations queued behind it
+// counts against all of them, as it would for real clients that kept arriving (the "coordinated
+// omission" a closed loop hides). The plain service times are reported alongside for comparison.
+// With a rate of 0 the threads send as fast as they can, and both measures are the same.
+//
+// replay sends the operations of a trace (see Workload.writeTrace) in file order from the calling
+// thread, so the same trace against the same population always leaves the same balances.
+public class LoadHarness {
+    private static final long SPIN_NANOS = 50_000; // See waitUntil
+
+    // Totals of one run; latencies in nanoseconds
+    public static final class Report {
+        private final long operations;
+        private final long declined;
+        private final long elapsedNanos;
+        private final LatencyHistogram latencies;
+        private final LatencyHistogram serviceTimes;
+
+        Report(long operations, long declined, long elapsedNanos, LatencyHistogram latencies, LatencyHistogram serviceTimes) {
+            this.operations = operations;
+            this.declined = declined;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            this.serviceTimes = serviceTimes;
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        public long getDeclined() {
+            return declined;
+        }
+
+        public double getOperationsPerSecond() {
+            return operations * 1e9 / elapsedNanos;
+        }
+
+        // From when each operation was due to when it finished
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        // From when each operation started to when it finished
+        public LatencyHistogram getServiceTimes() {
+            return serviceTimes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d operations (%.0f/s), %d declined, latency p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus"
+                            + " (service time p50=%.1fus p99=%.1fus p99.9=%.1fus)",
+                    operations, getOperationsPerSecond(), declined,
+                    latencies.getPercentile(0.5) / 1e3, latencies.getPercentile(0.99) / 1e3,
+                    latencies.getPercentile(0.999) / 1e3, latencies.getMax() / 1e3,
+                    serviceTimes.getPercentile(0.5) / 1e3, serviceTimes.getPercentile(0.99) / 1e3,
+                    serviceTimes.getPercentile(0.999) / 1e3);
+        }
+    }
+
+    private final Bank bank;
+    private final Workload workload;
+    private final List<Account> accounts; // By rank, as Workload.populate returns them
+
+    // Adds the workload's population to the bank
+    public LoadHarness(Bank bank, Workload workload) {
+        this.bank = bank;
+        this.workload = workload;
+        this.accounts = workload.populate(bank);
+    }
+
+    // Usage: LoadHarness [seconds] [operations per second, 0 for as fast as possible] [threads] [accounts]
+    //        [trace file to replay instead]
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        double rate = args.length > 1 ? Double.parseDouble(args[1]) : 100_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int accounts = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+        // Half as many customers as accounts, 40% savings, Zipf 1.0; 50% deposits, 30% withdrawals
+        // (5% of them declined), 20% lookups
+        Workload workload = new Workload(Math.max(1, accounts / 2), accounts, 0.4, 1.0, 0.5, 0.3, 0.05);
+        LoadHarness harness = new LoadHarness(new Bank(), workload);
+        Report report = args.length > 4
+                ? harness.replay(Path.of(args[4]), rate)
+                : harness.run(System.nanoTime(), threads, rate, Duration.ofSeconds(seconds));
+        System.out.println(report);
+    }
+
+    // Sends operations 0, 1, 2... of the workload's sequence for seed until duration is up. At a target
+    // rate exactly the operations due before then are sent; as fast as possible, about the first n.
+    public Report run(long seed, int threads, double operationsPerSecond, Duration duration) throws InterruptedException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive.");
+        }
+        if (!(operationsPerSecond >= 0)) {
+            throw new IllegalArgumentException("Rate cannot be negative.");
+        }
+        double intervalNanos = operationsPerSecond == 0 ? 0 : 1e9 / operationsPerSecond;
+        AtomicLong next = new AtomicLong();
+        LatencyHistogram latencies = new LatencyHistogram();
+        LatencyHistogram serviceTimes = new LatencyHistogram();
+        LongAdder declined = new LongAdder();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                pool.execute(() -> {
+                    while (true) {
+                        long index = next.getAndIncrement();
+                        long due = intervalNanos == 0 ? System.nanoTime() : start + (long) (index * intervalNanos);
+                        if (due >= deadline) {
+                            return;
+                        }
+                        Workload.Step step = workload.step(seed, index);
+                        waitUntil(due);
+                        long started = System.nanoTime();
+                        if (execute(step)) {
+                            declined.increment();
+                        }
+                        long finished = System.nanoTime();
+                        latencies.record(finished - due);
+                        serviceTimes.record(finished - started);
+                    }
+                });
+            }
+        } // Waits for every thread to finish
+        return new Report(latencies.getCount(), declined.sum(), System.nanoTime() - start, latencies, serviceTimes);
+    }
+
+    // Sends every operation of the trace in order from this thread, at the target rate (0 for as fast as
+    // possible). Account indexes refer to the workload's population, so use the workload the trace was
+    // written for.
+    public Report replay(Path trace, double operationsPerSecond) throws IOException {
+        if (!(operationsPerSecond >= 0)) {
+            throw new IllegalArgumentException("Rate cannot be negative.");
+        }
+        double intervalNanos = operationsPerSecond == 0 ? 0 : 1e9 / operationsPerSecond;
+        LatencyHistogram latencies = new LatencyHistogram();
+        LatencyHistogram serviceTimes = new LatencyHistogram();
+        long declined = 0;
+        long start = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(trace, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            long index = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Workload.Step step = Workload.Step.parse(line);
+                if (step == null || step.getAccount() >= accounts.size()) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " of " + trace + " is not an operation on one of the "
+                            + accounts.size() + " accounts: " + line);
+                }
+                long due = intervalNanos == 0 ? System.nanoTime() : start + (long) (index++ * intervalNanos);
+                waitUntil(due);
+                long started = System.nanoTime();
+                if (execute(step)) {
+                    declined++;
+                }
+                long finished = System.nanoTime();
+                latencies.record(finished - due);
+                serviceTimes.record(finished - started);
+            }
+        }
+        return new Report(latencies.getCount(), declined, System.nanoTime() - start, latencies, serviceTimes);
+    }
+
+    // Returns whether the operation was declined
+    private boolean execute(Workload.Step step) {
+        Account account = accounts.get(step.getAccount());
+        switch (step.getKind()) {
+            case DEPOSIT:
+                account.depositMinor(step.getAmountMinor());
+                return false;
+            case WITHDRAWAL:
+                return !account.tryWithdrawMinor(step.getAmountMinor()).isApproved();
+            default:
+                if (bank.findAccount(account.getAccountNumber()).isEmpty()) {
+                    throw new IllegalStateException("Account " + account.getAccountNumber() + " is missing from the bank.");
+                }
+                return false;
+        }
+    }
+
+    // Parks for most of the wait but spins the end of it: a park can overshoot by tens of microseconds,
+    // which at high rates would make the harness itself fall behind schedule
+    private static void waitUntil(long due) {
+        for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+            if (wait > SPIN_NANOS) {
+                LockSupport.parkNanos(wait - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
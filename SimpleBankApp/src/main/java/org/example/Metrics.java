@@ -0,0 +1,40 @@
+package org.example;
+
+// Receives timings and outcomes of bank operations. Callers take startTime() before the operation and
+// hand it back when it finishes, so implementations decide whether the clock is read at all.
+// Implementations must be thread-safe and must not allocate or block: they run on every operation.
+// NO_OP is the default; while it is the only implementation in use the JIT inlines it away completely.
+public interface Metrics {
+    Metrics NO_OP = new Metrics() {
+        @Override
+        public long startTime() {
+            return 0; // Doesn't read the clock
+        }
+
+        @Override
+        public void completed(Operation operation, long startTime) {
+            // Discards everything
+        }
+
+        @Override
+        public void rejected(Operation operation, long startTime) {
+            // Discards everything
+        }
+
+        @Override
+        public void lookedUp(Operation operation, boolean found) {
+            // Discards everything
+        }
+    };
+
+    long startTime();
+
+    // The operation succeeded
+    void completed(Operation operation, long startTime);
+
+    // The operation was declined (e.g. insufficient funds) without changing anything
+    void rejected(Operation operation, long startTime);
+
+    // A lookup by id or number; too cheap to be worth timing, so only the hit or miss is counted
+    void lookedUp(Operation operation, boolean found);
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Collecting Metrics implementation: striped counters and a latency histogram per Operation.
+// Pass it to a Bank to switch metrics on, read it directly, or publish it over JMX.
+public class MetricsRegistry implements Metrics {
+    private final OperationStats[] stats = new OperationStats[Operation.values().length];
+
+    public MetricsRegistry() {
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new OperationStats();
+        }
+    }
+
+    @Override
+    public long startTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void completed(Operation operation, long startTime) {
+        stats[operation.ordinal()].completed(System.nanoTime() - startTime);
+    }
+
+    @Override
+    public void rejected(Operation operation, long startTime) {
+        stats[operation.ordinal()].rejected(System.nanoTime() - startTime);
+    }
+
+    @Override
+    public void lookedUp(Operation operation, boolean found) {
+        stats[operation.ordinal()].lookedUp(found);
+    }
+
+    public OperationStats get(Operation operation) {
+        return stats[operation.ordinal()];
+    }
+
+    public Map<Operation, OperationStats> getAll() {
+        Map<Operation, OperationStats> all = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            all.put(operation, get(operation));
+        }
+        return all;
+    }
+
+    // Publishes one MBean per operation on the platform MBean server, named
+    // org.example:type=BankMetrics,bank=<bankName>,operation=<OPERATION>
+    public void registerMBeans(String bankName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Operation operation : Operation.values()) {
+            server.registerMBean(get(operation), objectName(bankName, operation));
+        }
+    }
+
+    public void unregisterMBeans(String bankName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Operation operation : Operation.values()) {
+            ObjectName name = objectName(bankName, operation);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+    }
+
+    private static ObjectName objectName(String bankName, Operation operation) throws JMException {
+        return new ObjectName("org.example:type=BankMetrics,bank=" + ObjectName.quote(bankName) + ",operation=" + operation);
+    }
+}
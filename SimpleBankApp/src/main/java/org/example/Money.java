@@ -0,0 +1,59 @@
+package org.example;
+
+// Fixed-point money helpers. Amounts are held as a long count of minor units (cents),
+// interest rates as a long count of millionths (1% = 10_000), so balance arithmetic is exact.
+public final class Money {
+    public static final long MINOR_PER_MAJOR = 100;
+    public static final long RATE_SCALE = 1_000_000;
+
+    private static final double MAX_SCALED = 9.0e18; // Comfortably inside the long range
+
+    private Money() {
+        // Static helpers only
+    }
+
+    // Rounds to the nearest minor unit, ties to even
+    public static long toMinor(double amount) {
+        return scale(amount, MINOR_PER_MAJOR, "Amount");
+    }
+
+    public static double toMajor(long amountMinor) {
+        return amountMinor / (double) MINOR_PER_MAJOR;
+    }
+
+    // Rounds to the nearest millionth, ties to even
+    public static long toRate(double rate) {
+        return scale(rate, RATE_SCALE, "Interest rate");
+    }
+
+    public static double fromRate(long rate) {
+        return rate / (double) RATE_SCALE;
+    }
+
+    // Interest in minor units for a non-negative rate, rounded half-even (banker's rounding) to the nearest minor unit.
+    // Splits the balance so the intermediate product can't overflow for any realistic rate.
+    public static long interest(long balanceMinor, long rate) {
+        if (rate < 0) {
+            throw new IllegalArgumentException("Interest rate cannot be negative.");
+        }
+        long result = Math.multiplyExact(Math.floorDiv(balanceMinor, RATE_SCALE), rate);
+        long fraction = Math.floorMod(balanceMinor, RATE_SCALE) * rate;
+        result = Math.addExact(result, fraction / RATE_SCALE);
+        long twiceRemainder = (fraction % RATE_SCALE) * 2;
+        if (twiceRemainder > RATE_SCALE || (twiceRemainder == RATE_SCALE && (result & 1) != 0)) {
+            result++;
+        }
+        return result;
+    }
+
+    private static long scale(double value, long factor, String what) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException(what + " must be a finite number.");
+        }
+        double scaled = Math.rint(value * factor);
+        if (Math.abs(scaled) > MAX_SCALED) {
+            throw new IllegalArgumentException(what + " is out of range.");
+        }
+        return (long) scaled;
+    }
+}
@@ -0,0 +1,392 @@
+package org.example;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Name search behind Bank.searchCustomers. Names are split into words, folded to lower case without
+// accents, and every distinct word keeps the customers whose name contains it. Words sit in a sorted
+// map, so the words starting with a query term are one range; a second map keyed by length and the
+// reversed word does the same for endings. A hash map of the same words serves exact lookups, so adding
+// a customer whose words are already known walks no tree.
+//
+// A term matches a word exactly, as a prefix of it, or (for terms of 4+ characters) with one typo: a
+// letter missing, extra, wrong, or two swapped. Such a word shares either the term's first half as a
+// prefix or its second half as a suffix, so typo candidates come from two short ranges rather than a
+// scan of every word, and nothing beyond the two maps needs storing.
+//
+// The bank keeps it up to date as customers are added and renamed, from many threads at once (e.g. a
+// parallel BulkImport), so nothing locks the whole index: the maps are concurrent, changes to one word's
+// customers are serialized by exactWords.compute on that word alone, and searches lock nothing. A search
+// racing a change may miss or see the customer it concerns, never anything else.
+final class NameIndex {
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int TYPO = 1;
+    private static final int MIN_TYPO_LENGTH = 4; // Shorter terms have too many one-edit neighbours
+
+    private final ConcurrentHashMap<String, Word> exactWords = new ConcurrentHashMap<>(); // Same words, for lookups without a tree walk
+    private final ConcurrentSkipListMap<String, Word> words = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Word> reversedWords = new ConcurrentSkipListMap<>(); // See reversedKey
+
+    // Customers whose name contains the word; removal swaps in the last one, so order means nothing.
+    // Changed only inside exactWords.compute for its text. Readers take size first and then customers,
+    // which the writer sets in the opposite order, so the first size slots are there; a slot a racing
+    // removal just emptied reads as null.
+    private static final class Word {
+        final String text;
+        volatile Customer[] customers = new Customer[1];
+        volatile int size;
+
+        Word(String text) {
+            this.text = text;
+        }
+
+        void add(Customer customer) {
+            Customer[] current = customers;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+                customers = current;
+            }
+            current[size] = customer;
+            size = size + 1;
+        }
+
+        void remove(Customer customer) {
+            Customer[] current = customers;
+            for (int i = 0; i < size; i++) {
+                if (current[i] == customer) {
+                    int last = size - 1;
+                    current[i] = current[last];
+                    current[last] = null;
+                    size = last;
+                    return;
+                }
+            }
+        }
+    }
+
+    // Indexes a customer and has later renames of it reported here
+    void add(Customer customer) {
+        synchronized (customer) { // The lock setName holds, so a racing rename comes fully before or after
+            for (String word : words(customer.getName())) {
+                addTo(word, customer);
+            }
+            customer.indexedBy(this);
+        }
+    }
+
+    // Called by Customer.setName, serialized per customer
+    void renamed(Customer customer, String oldName, String newName) {
+        Set<String> before = words(oldName);
+        Set<String> after = words(newName);
+        for (String word : before) {
+            if (!after.contains(word)) {
+                removeFrom(word, customer);
+            }
+        }
+        for (String word : after) {
+            if (!before.contains(word)) {
+                addTo(word, customer);
+            }
+        }
+    }
+
+    // Up to limit customers matching every word of the query, best first: exact words before prefixes
+    // before typos, then by name. Among equally good matches for a one-word query, which ones make the
+    // cut is arbitrary: it stops as soon as it has enough rather than ranking every John.
+    List<Customer> search(String query, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        List<String> terms = query == null ? List.of() : new ArrayList<>(words(query));
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Hit> hits = terms.size() == 1 ? firstMatches(terms.get(0), limit) : bestMatches(terms, limit);
+        hits.sort(Hit.BEST_FIRST);
+        List<Customer> result = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            result.add(hit.customer);
+        }
+        return result;
+    }
+
+    private static final class Hit {
+        static final Comparator<Hit> BEST_FIRST = Comparator.comparingInt((Hit hit) -> -hit.score)
+                .thenComparing(hit -> hit.name)
+                .thenComparing(hit -> hit.customer.getId());
+
+        final Customer customer;
+        final String name;
+        final int score;
+
+        Hit(Customer customer, String name, int score) {
+            this.customer = customer;
+            this.name = name;
+            this.score = score;
+        }
+    }
+
+    // One term: the score is how well it matched, so take customers tier by tier until there are enough
+    private List<Hit> firstMatches(String term, int limit) {
+        List<Hit> hits = new ArrayList<>(limit);
+        Set<Customer> seen = new HashSet<>();
+        take(exactWords.get(term), EXACT, hits, seen, limit);
+        for (Word word : words.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+            if (hits.size() == limit) {
+                return hits;
+            }
+            take(word, PREFIX, hits, seen, limit);
+        }
+        if (hits.size() < limit && term.length() >= MIN_TYPO_LENGTH) {
+            for (Word word : typos(term)) {
+                take(word, TYPO, hits, seen, limit);
+            }
+        }
+        return hits;
+    }
+
+    private static void take(Word word, int quality, List<Hit> hits, Set<Customer> seen, int limit) {
+        if (word == null) {
+            return;
+        }
+        int size = word.size; // Before customers; see Word
+        Customer[] customers = word.customers;
+        for (int i = 0; i < size && hits.size() < limit; i++) {
+            Customer customer = customers[i];
+            if (customer != null && seen.add(customer)) { // A customer named "Jo Joseph" is found through both words
+                hits.add(new Hit(customer, customer.getName(), quality));
+            }
+        }
+    }
+
+    // Several terms: walk the customers of the term matching the fewest (counting exact and prefix
+    // matches; typos are costlier to find), best matches first, score each against the other terms and
+    // keep the best, until no remaining word could beat them
+    private List<Hit> bestMatches(List<String> terms, int limit) {
+        List<Match> driver = null;
+        long driverCount = Long.MAX_VALUE;
+        int driverTerm = -1;
+        for (int t = 0; t < terms.size(); t++) {
+            List<Match> matches = exactAndPrefixMatches(terms.get(t));
+            long count = 0;
+            for (Match match : matches) {
+                count += match.word.size;
+            }
+            if (count < driverCount) {
+                driver = matches;
+                driverCount = count;
+                driverTerm = t;
+            }
+        }
+        String driverText = terms.get(driverTerm);
+        if (driverText.length() >= MIN_TYPO_LENGTH) {
+            for (Word word : typos(driverText)) { // Only for the driver; other terms are checked per candidate
+                driver.add(new Match(word, TYPO));
+            }
+        }
+        List<String> otherTerms = new ArrayList<>(terms);
+        otherTerms.remove(driverTerm);
+        int otherTermsBest = EXACT * otherTerms.size();
+        // Worst of the best kept on top, so each better candidate replaces it
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Hit.BEST_FIRST.reversed());
+        Set<Customer> seen = new HashSet<>();
+        for (Match match : driver) {
+            if (best.size() == limit && match.quality + otherTermsBest < best.peek().score) {
+                break;
+            }
+            int size = match.word.size; // Before customers; see Word
+            Customer[] customers = match.word.customers;
+            for (int i = 0; i < size; i++) {
+                Customer customer = customers[i];
+                if (customer == null || !seen.add(customer)) {
+                    continue; // Already scored through a better-matching word
+                }
+                String name = customer.getName(); // May be a rename not yet reflected in the words
+                int others = score(name, otherTerms);
+                if (others == 0) {
+                    continue;
+                }
+                int score = match.quality + others;
+                if (best.size() < limit || score >= best.peek().score) {
+                    best.add(new Hit(customer, name, score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(best);
+    }
+
+    private static final class Match {
+        final Word word;
+        final int quality;
+
+        Match(Word word, int quality) {
+            this.word = word;
+            this.quality = quality;
+        }
+    }
+
+    // Sum of how well each term matches its best word of the name; 0 if any term matches none
+    private static int score(String name, List<String> terms) {
+        List<String> nameWords = wordList(name);
+        int score = 0;
+        for (String term : terms) {
+            int bestQuality = 0;
+            for (String word : nameWords) {
+                bestQuality = Math.max(bestQuality, quality(term, word));
+            }
+            if (bestQuality == 0) {
+                return 0;
+            }
+            score += bestQuality;
+        }
+        return score;
+    }
+
+    // Indexed words the term matches exactly or as a prefix, the exact one first
+    private List<Match> exactAndPrefixMatches(String term) {
+        List<Match> matches = new ArrayList<>();
+        Word exact = exactWords.get(term);
+        if (exact != null) {
+            matches.add(new Match(exact, EXACT));
+        }
+        for (Word word : words.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+            matches.add(new Match(word, PREFIX));
+        }
+        return matches;
+    }
+
+    // Words one typo away from the term that don't start with it, in word order. The typo is either
+    // past the middle, leaving the first half as a prefix, or before it, leaving the rest after the
+    // middle letter as a suffix; suffix ranges are also limited to words of a possible length.
+    private List<Word> typos(String term) {
+        int half = term.length() / 2;
+        String prefix = term.substring(0, half);
+        String reversedSuffix = reverse(term.substring(half + 1));
+        Set<Word> candidates = new HashSet<>(words.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values());
+        for (int length = term.length() - 1; length <= term.length() + 1; length++) {
+            String from = (char) length + reversedSuffix;
+            candidates.addAll(reversedWords.subMap(from, true, from + Character.MAX_VALUE, false).values());
+        }
+        List<Word> typos = new ArrayList<>();
+        for (Word word : candidates) {
+            if (!word.text.startsWith(term) && withinOneEdit(term, word.text)) {
+                typos.add(word);
+            }
+        }
+        typos.sort(Comparator.comparing((Word word) -> word.text));
+        return typos;
+    }
+
+    static int quality(String term, String word) {
+        if (word.startsWith(term)) {
+            return word.length() == term.length() ? EXACT : PREFIX;
+        }
+        return term.length() >= MIN_TYPO_LENGTH && withinOneEdit(term, word) ? TYPO : 0;
+    }
+
+    // One insertion, deletion, substitution or swap of neighbouring letters, in linear time
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        int start = 0;
+        while (start < a.length() && start < b.length() && a.charAt(start) == b.charAt(start)) {
+            start++;
+        }
+        int endA = a.length();
+        int endB = b.length();
+        while (endA > start && endB > start && a.charAt(endA - 1) == b.charAt(endB - 1)) {
+            endA--;
+            endB--;
+        }
+        int differingA = endA - start;
+        int differingB = endB - start;
+        if (differingA <= 1 && differingB <= 1) {
+            return true; // Equal, or one letter inserted, deleted or replaced
+        }
+        return differingA == 2 && differingB == 2
+                && a.charAt(start) == b.charAt(start + 1) && a.charAt(start + 1) == b.charAt(start);
+    }
+
+    // Distinct lower-case words of a name, accents removed; "José O'Neil" gives jose, o, neil
+    static Set<String> words(String name) {
+        return new LinkedHashSet<>(wordList(name));
+    }
+
+    private static List<String> wordList(String name) {
+        String folded = name;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) {
+                folded = Normalizer.normalize(name, Normalizer.Form.NFD); // Splits accents off their letters
+                break;
+            }
+        }
+        List<String> words = new ArrayList<>(4);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    // Only ever changes the word's own entries, under exactWords' lock for that word alone
+    private void addTo(String text, Customer customer) {
+        exactWords.compute(text, (key, word) -> {
+            if (word == null) {
+                word = new Word(key);
+                words.put(key, word);
+                reversedWords.put(reversedKey(key), word);
+            }
+            word.add(customer);
+            return word;
+        });
+    }
+
+    private void removeFrom(String text, Customer customer) {
+        exactWords.computeIfPresent(text, (key, word) -> {
+            word.remove(customer);
+            if (word.size > 0) {
+                return word;
+            }
+            words.remove(key); // Keeps typo and prefix ranges free of dead words
+            reversedWords.remove(reversedKey(key));
+            return null;
+        });
+    }
+
+    // The word's length as a character, then the word backwards
+    private static String reversedKey(String text) {
+        return (char) text.length() + reverse(text);
+    }
+
+    private static String reverse(String text) {
+        return new StringBuilder(text).reverse().toString();
+    }
+}
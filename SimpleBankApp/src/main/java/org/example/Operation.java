@@ -0,0 +1,14 @@
+package org.example;
+
+// The operations Bank and Account report to Metrics
+public enum Operation {
+    ADD_CUSTOMER,
+    OPEN_ACCOUNT,
+    DEPOSIT,
+    WITHDRAWAL,
+    TRANSFER,
+    BATCH,
+    IMPORT, // One batch of customers or accounts added by a BulkImport
+    FIND_ACCOUNT,
+    FIND_CUSTOMER
+}
@@ -0,0 +1,78 @@
+package org.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and latencies for one Operation. Count includes rejections; for lookups a rejection is a miss
+// and no latency is recorded.
+public final class OperationStats implements OperationStatsMXBean {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationStats() {
+        // Created by MetricsRegistry
+    }
+
+    void completed(long nanos) {
+        count.increment();
+        latency.record(nanos);
+    }
+
+    void rejected(long nanos) {
+        count.increment();
+        rejected.increment();
+        latency.record(nanos);
+    }
+
+    void lookedUp(boolean found) {
+        count.increment();
+        if (!found) {
+            rejected.increment();
+        }
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public double getRejectionRate() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) rejected.sum() / total;
+    }
+
+    @Override
+    public double getMeanLatencyNanos() {
+        return latency.getMean();
+    }
+
+    @Override
+    public long getMaxLatencyNanos() {
+        return latency.getMax();
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return latency.getPercentile(0.5);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return latency.getPercentile(0.99);
+    }
+
+    @Override
+    public long getLatencyP999Nanos() {
+        return latency.getPercentile(0.999);
+    }
+}
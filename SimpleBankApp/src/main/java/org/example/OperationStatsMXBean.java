@@ -0,0 +1,20 @@
+package org.example;
+
+// JMX view of one operation's metrics; MetricsRegistry.registerMBeans publishes one per Operation
+public interface OperationStatsMXBean {
+    long getCount();
+
+    long getRejectedCount();
+
+    double getRejectionRate();
+
+    double getMeanLatencyNanos();
+
+    long getMaxLatencyNanos();
+
+    long getLatencyP50Nanos();
+
+    long getLatencyP99Nanos();
+
+    long getLatencyP999Nanos();
+}
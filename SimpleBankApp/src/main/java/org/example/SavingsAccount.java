@@ -1,46 +1,131 @@
 package org.example;
 
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
 public class SavingsAccount extends Account {
-    private double interestRate; // Example: 0.01 for 1%
+    private final long interestRate; // In millionths (see Money). Example: 10000 for 1%
+    private long lastInterestRunId; // Highest InterestRun that has posted to this account; guarded by lock (views keep it in their columns)
 
     public SavingsAccount(Customer owner, double initialDeposit, double interestRate) {
         super(owner, initialDeposit);
         if (interestRate < 0) {
             throw new IllegalArgumentException("Interest rate cannot be negative.");
         }
+        this.interestRate = Money.toRate(interestRate);
+    }
+
+    // Restores an account from a journal or snapshot
+    SavingsAccount(long number, Customer owner, long balanceMinor, long interestRate) {
+        this(number, owner, balanceMinor, interestRate, 0);
+    }
+
+    SavingsAccount(long number, Customer owner, long balanceMinor, long interestRate, long lastInterestRunId) {
+        super(number, owner, balanceMinor);
         this.interestRate = interestRate;
+        this.lastInterestRunId = lastInterestRunId;
+    }
+
+    // A view of a row of a ColumnarAccountStore
+    SavingsAccount(AccountColumns columns, int row, Customer owner, ReentrantLock lock, int lockRank) {
+        super(columns, row, owner, lock, lockRank);
+        this.interestRate = columns.terms[row];
     }
 
     @Override
     public void withdraw(double amount) throws InsufficientFundsException {
-        if (amount <= 0) {
-            throw new IllegalArgumentException("Withdrawal amount must be positive.");
+        applyWithdrawal(toPositiveMinor(amount, "Withdrawal amount must be positive."));
+    }
+
+    @Override
+    String insufficientFundsMessage(long availableMinor, long requestedMinor) {
+        return "Insufficient funds in Savings Account " + getAccountNumber() + ". Balance: " + Money.toMajor(availableMinor) + ", Requested: " + Money.toMajor(requestedMinor);
+    }
+
+    @Override
+    long floorBalance() {
+        return 0; // Savings can't be overdrawn
+    }
+
+    // Interest is rounded half-even to the nearest minor unit; nothing is posted if it rounds to zero
+    public void applyInterest() {
+        long journalPosition = 0;
+        lock.lock(); // Keeps read-and-credit atomic
+        try {
+            long interest = Money.interest(getBalanceMinor(), interestRate);
+            if (interest > 0) {
+                versions.beforeWrite(this);
+                checkCredit(interest);
+                journalPosition = journal == null ? 0 : journaled(journal.logInterest(getAccountNumber(), interest, 0));
+                events.publish(EventType.INTEREST, getAccountNumber(), interest, credit(interest));
+            }
+        } finally {
+            lock.unlock();
         }
-        if (balance >= amount) {
-            balance -= amount;
-            System.out.println("Withdrew: " + amount + " from Savings. New balance: " + balance);
-        } else {
-            throw new InsufficientFundsException("Insufficient funds in Savings Account " + accountNumber + ". Balance: " + balance + ", Requested: " + amount);
+        awaitDurable(journalPosition);
+    }
+
+    // Posts interest for a bank-wide run unless that run (or a later one) already did, adding it to
+    // interestPosted. Doesn't wait for the journal, so the run can wait once for many accounts: returns the
+    // journal position to wait for (0 without a journal), or -1 if the account was skipped.
+    long postInterest(long runId, LongAdder interestPosted) {
+        long interest;
+        long journalPosition;
+        lock.lock();
+        try {
+            if (getLastInterestRunId() >= runId) {
+                return -1;
+            }
+            interest = Money.interest(getBalanceMinor(), interestRate);
+            checkCredit(interest);
+            // Logged first, and even when zero, so a replayed bank knows this run already covered the account
+            journalPosition = journal == null ? 0 : journaled(journal.logInterest(getAccountNumber(), interest, runId));
+            if (interest > 0) {
+                versions.beforeWrite(this);
+                events.publish(EventType.INTEREST, getAccountNumber(), interest, credit(interest));
+            }
+            setLastInterestRunId(runId);
+        } finally {
+            lock.unlock();
         }
+        interestPosted.add(interest);
+        return journalPosition;
     }
 
-    public void applyInterest() {
-        double interest = balance * interestRate;
-        deposit(interest); // Reuse deposit logic
-        System.out.println("Applied interest: " + interest + ". New balance: " + balance);
+    // Replays an interest posting from the journal; the bank isn't shared yet, so no locking
+    void restoreInterest(long interestMinor, long runId) {
+        credit(interestMinor);
+        setLastInterestRunId(Math.max(getLastInterestRunId(), runId));
+    }
+
+    // Caller must hold the lock, or own the account before it is shared
+    long getLastInterestRunId() {
+        return columns == null ? lastInterestRunId : columns.interestRunIds[row];
+    }
+
+    private void setLastInterestRunId(long runId) {
+        if (columns == null) {
+            lastInterestRunId = runId;
+        } else {
+            columns.interestRunIds[row] = runId;
+        }
     }
 
     public double getInterestRate() {
+        return Money.fromRate(interestRate);
+    }
+
+    public long getInterestRateMillionths() {
         return interestRate;
     }
 
     @Override
     public String toString() {
         return "SavingsAccount{" +
-                "accountNumber='" + accountNumber + '\'' +
+                "accountNumber='" + getAccountNumber() + '\'' +
                 ", owner=" + owner.getName() +
-                ", balance=" + balance +
-                ", interestRate=" + interestRate +
+                ", balance=" + Money.toMajor(getBalanceMinor()) +
+                ", interestRate=" + Money.fromRate(interestRate) +
                 '}';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,202 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+// Partitioned front for a Bank. Accounts are hashed by number into shards, and each shard has one writer
+// thread that applies every deposit, withdrawal and transfer out of its accounts. Callers get a future
+// back instead of blocking, so any number of them can queue work without competing for account locks:
+// an account's lock is only ever taken by its own shard's writer (and by transfers into it from other
+// shards), so it is practically always free.
+//
+// A writer drains whatever has queued up since its last pass and applies it as one Bank.applyBatch, so a
+// busy shard takes each account's lock once per batch and waits for one group commit per batch rather
+// than per operation. Queues are bounded: submitting to a full shard blocks until it catches up.
+//
+// A transfer runs on the shard of the account it debits. When the target lives on another shard, its
+// lock is taken for the duration of that batch; both sides change together and are journaled as one
+// record, exactly as with Bank.transfer, so recovery and snapshots need nothing special for them.
+//
+// Futures complete on the shard's writer thread; use the async variants of CompletableFuture's methods
+// for anything slow, so the shard isn't held up.
+public class ShardedBank implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+
+    private static final int MAX_BATCH = 1024;
+    private static final Request STOP = new Request(null);
+
+    private final Bank bank;
+    private final Shard[] shards;
+
+    public ShardedBank(Bank bank, int shardCount) {
+        this(bank, shardCount, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public ShardedBank(Bank bank, int shardCount, int queueCapacity) {
+        if (bank == null) {
+            throw new IllegalArgumentException("Bank cannot be null.");
+        }
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive.");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive.");
+        }
+        this.bank = bank;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+    }
+
+    // The bank behind the shards, for customers, opening accounts and lookups, which need no shard
+    public Bank getBank() {
+        return bank;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // Shard owning the account; numbers that can't be parsed go to shard 0, which reports them unknown
+    public int shardOf(String accountNumber) {
+        long number;
+        try {
+            number = accountNumber == null ? 0 : Long.parseLong(accountNumber);
+        } catch (NumberFormatException e) {
+            number = 0;
+        }
+        long h = number * 0x9E3779B97F4A7C15L; // Spreads each thread's block of sequential numbers over the shards
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) shards.length);
+    }
+
+    public CompletableFuture<BatchResult> deposit(String accountNumber, long amountMinor) {
+        return submit(new BatchOperation(BatchOperation.Kind.DEPOSIT, accountNumber, null, amountMinor));
+    }
+
+    public CompletableFuture<BatchResult> withdraw(String accountNumber, long amountMinor) {
+        return submit(new BatchOperation(BatchOperation.Kind.WITHDRAW, accountNumber, null, amountMinor));
+    }
+
+    public CompletableFuture<BatchResult> transfer(String fromAccountNumber, String toAccountNumber, long amountMinor) {
+        return submit(new BatchOperation(BatchOperation.Kind.TRANSFER, fromAccountNumber, toAccountNumber, amountMinor));
+    }
+
+    // Queues the operation on the shard of the account it debits or deposits to. The future completes
+    // with the same result Bank.applyBatch would give, once the change is durable. Blocks while that
+    // shard's queue is full; fails with IllegalStateException after close.
+    public CompletableFuture<BatchResult> submit(BatchOperation operation) {
+        if (operation == null) {
+            throw new IllegalArgumentException("Operation cannot be null.");
+        }
+        Request request = new Request(operation);
+        shards[shardOf(operation.getAccountNumber())].enqueue(request);
+        return request.result;
+    }
+
+    // Stops accepting operations, applies everything already queued and waits for the writers to finish
+    @Override
+    public void close() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+        for (Shard shard : shards) {
+            shard.writer.join();
+        }
+    }
+
+    private static final class Request {
+        final BatchOperation operation;
+        final CompletableFuture<BatchResult> result = new CompletableFuture<>();
+
+        Request(BatchOperation operation) {
+            this.operation = operation;
+        }
+    }
+
+    private final class Shard {
+        private final BlockingQueue<Request> queue;
+        private final Thread writer;
+        private volatile boolean closed;
+
+        Shard(int index, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.writer = new Thread(this::run, "bank-shard-" + index);
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+
+        void enqueue(Request request) {
+            if (closed) {
+                throw new IllegalStateException("Sharded bank is closed.");
+            }
+            try {
+                queue.put(request);
+                if (closed) {
+                    // Raced with stop: the writer may have exited without seeing this request
+                    writer.join();
+                    if (queue.remove(request)) {
+                        request.result.completeExceptionally(new IllegalStateException("Sharded bank is closed."));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for shard queue space.", e);
+            }
+        }
+
+        void stop() throws InterruptedException {
+            closed = true;
+            queue.put(STOP);
+        }
+
+        private void run() {
+            List<Request> batch = new ArrayList<>(MAX_BATCH);
+            List<BatchOperation> operations = new ArrayList<>(MAX_BATCH);
+            boolean stopping = false;
+            while (!stopping || !queue.isEmpty()) {
+                try {
+                    batch.add(stopping ? queue.remove() : queue.take());
+                } catch (InterruptedException e) {
+                    continue; // Only close stops the writer
+                }
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (Request request : batch) {
+                    if (request == STOP) {
+                        stopping = true;
+                    } else {
+                        operations.add(request.operation);
+                    }
+                }
+                apply(batch, operations);
+                batch.clear();
+                operations.clear();
+            }
+        }
+
+        private void apply(List<Request> batch, List<BatchOperation> operations) {
+            if (operations.isEmpty()) {
+                return;
+            }
+            List<BatchResult> results;
+            try {
+                results = bank.applyBatch(operations);
+            } catch (RuntimeException e) {
+                for (Request request : batch) {
+                    request.result.completeExceptionally(e);
+                }
+                return;
+            }
+            int next = 0;
+            for (Request request : batch) {
+                if (request != STOP) {
+                    request.result.complete(results.get(next++));
+                }
+            }
+        }
+    }
+}
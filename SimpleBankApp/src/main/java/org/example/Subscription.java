@@ -0,0 +1,153 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// One subscriber's feed of balance changes, from Bank.subscribe. Accounts publish each change into a
+// pre-allocated ring (parallel arrays, like AsyncEventSink's) while holding their lock, so the changes
+// of one account are in the ring, and reach the listener, in the order they happened. A thread of the
+// subscription's own delivers them in batches: everything published since the last batch, one listener
+// call per change, then the slots are handed back.
+//
+// When the listener falls a whole ring behind, BLOCK makes the writers wait for it (backpressure: the
+// bank slows to the listener's pace), and DROP discards the change and counts it (the bank never waits,
+// and the listener sees a gap in the account's sequence numbers). Each subscription has its own ring,
+// so a slow subscriber only ever holds up the bank, never the other subscribers.
+public final class Subscription implements AutoCloseable {
+    private static final int IDLE_SPINS = 1_000; // Busy checks before the deliverer starts to park
+    private static final long IDLE_PARK_NANOS = 50_000; // Deliverer poll interval once idle
+    private static final long FULL_PARK_NANOS = 10_000; // Writer back-off when blocked on a full ring
+    private static final AtomicInteger threadNumbers = new AtomicInteger();
+
+    private final ChangeFeed feed;
+    private final BalanceChangeListener listener;
+    private final AsyncEventSink.OverflowPolicy overflowPolicy;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray slotSequences; // Whose turn each slot is; see AsyncEventSink
+    private final long[] accountNumbers;
+    private final long[] deltas;
+    private final long[] balances;
+    private final long[] changeSequences;
+
+    private final AtomicLong tail = new AtomicLong(); // Next position writers will claim
+    private long head; // Next position to deliver; only touched by the deliverer thread
+
+    private final LongAdder dropped = new LongAdder();
+    private final Thread deliverer;
+    private volatile boolean closed;
+
+    Subscription(ChangeFeed feed, BalanceChangeListener listener, int capacity, AsyncEventSink.OverflowPolicy overflowPolicy) {
+        if (listener == null || overflowPolicy == null) {
+            throw new IllegalArgumentException("Listener and overflow policy are required.");
+        }
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two.");
+        }
+        this.feed = feed;
+        this.listener = listener;
+        this.overflowPolicy = overflowPolicy;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slotSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slotSequences.set(i, i);
+        }
+        this.accountNumbers = new long[capacity];
+        this.deltas = new long[capacity];
+        this.balances = new long[capacity];
+        this.changeSequences = new long[capacity];
+        this.deliverer = new Thread(this::deliverLoop, "bank-change-feed-" + threadNumbers.incrementAndGet());
+        this.deliverer.setDaemon(true);
+        this.deliverer.start();
+    }
+
+    // Changes discarded because the ring was full, the listener threw, or they came after close
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // Stops the feed, delivers everything already published, and waits for the listener to finish it
+    @Override
+    public void close() throws InterruptedException {
+        feed.remove(this);
+        closed = true;
+        LockSupport.unpark(deliverer);
+        deliverer.join();
+    }
+
+    // Caller holds the account's lock
+    void publish(long accountNumber, long deltaMinor, long balanceMinor, long sequence) {
+        long position;
+        while (true) {
+            if (closed) {
+                dropped.increment();
+                return;
+            }
+            position = tail.get();
+            long difference = slotSequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break; // Slot claimed
+                }
+            } else if (difference < 0) { // Ring is full
+                if (overflowPolicy == AsyncEventSink.OverflowPolicy.DROP) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+            // Otherwise another writer claimed this position first; retry with the new tail
+        }
+        int index = (int) position & mask;
+        accountNumbers[index] = accountNumber;
+        deltas[index] = deltaMinor;
+        balances[index] = balanceMinor;
+        changeSequences[index] = sequence;
+        slotSequences.set(index, position + 1); // Publishes the slot to the deliverer
+    }
+
+    // Spins briefly when idle, so a busy feed is picked up at once, then parks so an idle one costs nothing.
+    // Should the thread die anyway, the subscription counts as closed, so BLOCK writers drop instead of
+    // waiting forever (under their account locks) for a ring nobody empties.
+    private void deliverLoop() {
+        try {
+            int idle = 0;
+            while (!closed || head != tail.get()) {
+                if (deliverBatch()) {
+                    idle = 0;
+                } else if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+            }
+        } finally {
+            closed = true;
+        }
+    }
+
+    // Delivers the run of published slots starting at head; false if there was none
+    private boolean deliverBatch() {
+        long end = head;
+        while (end - head < capacity && slotSequences.get((int) end & mask) == end + 1) {
+            end++;
+        }
+        if (end == head) {
+            return false;
+        }
+        for (; head < end; head++) {
+            int index = (int) head & mask;
+            try {
+                listener.onBalanceChange(accountNumbers[index], deltas[index], balances[index], changeSequences[index], head == end - 1);
+            } catch (Throwable e) {
+                dropped.increment(); // A failing listener, Errors included, must not stall the bank
+            }
+            slotSequences.lazySet(index, head + capacity); // Hands the slot back to writers
+        }
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+
+// One entry of an account's statement, as returned by TransactionHistory.page.
+// Sequence numbers start at 1 for the account's opening and increase by one per transaction.
+public final class Transaction {
+    private final long sequence;
+    private final EventType type;
+    private final long amountMinor;
+    private final long balanceMinor;
+    private final long timestampMillis;
+
+    Transaction(long sequence, EventType type, long amountMinor, long balanceMinor, long timestampMillis) {
+        this.sequence = sequence;
+        this.type = type;
+        this.amountMinor = amountMinor;
+        this.balanceMinor = balanceMinor;
+        this.timestampMillis = timestampMillis;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public double getAmount() {
+        return Money.toMajor(amountMinor);
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    // Balance right after this transaction
+    public double getBalance() {
+        return Money.toMajor(balanceMinor);
+    }
+
+    public long getBalanceMinor() {
+        return balanceMinor;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Transaction{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", amount=" + getAmount() +
+                ", balance=" + getBalance() +
+                '}';
+    }
+}
@@ -0,0 +1,511 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// EventSink that keeps a statement for every account. Pass it to a Bank (alone, or combined with
+// another sink through andThen) and query it by account number.
+//
+// Each account's most recent transactions live in a ring of longs, three per entry, which grows up to
+// recentCapacity entries and then overwrites its oldest. Without a directory the overwritten entries are
+// gone; with one they are spilled to fixed-size records in append-only segment files, each pointing back
+// at the previous spilled record of the same account, so an account's history can be walked from newest
+// to oldest without an index. Spilled records are buffered and written in blocks, never synced: history
+// is a reporting aid, rebuilt from nothing when the process starts, and the journal stays the record.
+//
+// Spilling happens while an account's lock is held, so it must neither serialize accounts nor touch the
+// disk. Accounts are dealt out to STRIPES independent spill logs, each with its own lock, buffer and
+// segment files, and full buffers are written by a background thread; a stripe's lock only guards
+// copying a record in or out of memory.
+//
+// Queries stream entries newest first and never hold more than one ring's worth of them in memory.
+public class TransactionHistory implements EventSink, AutoCloseable {
+
+    // Receives history entries, newest first; return false to stop
+    @FunctionalInterface
+    public interface Visitor {
+        boolean visit(long sequence, EventType type, long amountMinor, long balanceMinor, long timestampMillis);
+    }
+
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private static final int INITIAL_RING_ENTRIES = 4;
+    private static final int ENTRY_LONGS = 3; // timestamp << 8 | type, amount, balance after
+    private static final int RECORD_SIZE = 40; // sequence, timestamp and type, amount, balance, previous record
+    private static final int BUFFER_RECORDS = 1638; // About 64 KiB
+    private static final int STRIPES = 16; // Spill logs; accounts are dealt out to them in turn
+    private static final int MAX_UNWRITTEN_BLOCKS = 4; // Per stripe; spilling waits for the writer beyond this
+    private static final Block STOP = new Block(null, 0, ByteBuffer.allocate(0)); // Ends the writer thread
+    private static final long NONE = -1;
+    private static final EventType[] TYPES = EventType.values();
+
+    private final int recentCapacity;
+    private final ConcurrentHashMap<String, Ring> rings = new ConcurrentHashMap<>();
+
+    // Spilling; all null or unused without a directory
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxSegments; // Per stripe
+    private final int blockBytes;
+    private final Stripe[] stripes;
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private final BlockingQueue<Block> toWrite = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile IOException failure; // The first write failure; spilling stops there
+    private boolean closed; // Guarded by stripes
+
+    // Keeps only the most recent entries of each account in memory
+    public TransactionHistory(int recentCapacity) {
+        this.recentCapacity = checkCapacity(recentCapacity);
+        this.directory = null;
+        this.segmentBytes = 0;
+        this.maxSegments = 0;
+        this.blockBytes = 0;
+        this.stripes = null;
+        this.writer = null;
+    }
+
+    // Spills older entries to segments of DEFAULT_SEGMENT_BYTES in directory, keeping all of them
+    public TransactionHistory(int recentCapacity, Path directory) throws IOException {
+        this(recentCapacity, directory, DEFAULT_SEGMENT_BYTES, Integer.MAX_VALUE);
+    }
+
+    // Once a stripe has more than maxSegments segments its oldest is deleted, and statements end there; the
+    // directory holds up to STRIPES times maxSegments segments. Segment files already in directory, from an
+    // earlier run, are deleted.
+    public TransactionHistory(int recentCapacity, Path directory, long segmentBytes, int maxSegments) throws IOException {
+        if (segmentBytes < RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + RECORD_SIZE + " bytes.");
+        }
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("At least one segment must be kept.");
+        }
+        this.recentCapacity = checkCapacity(recentCapacity);
+        this.directory = directory;
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_SIZE; // Records never straddle two segments
+        this.maxSegments = maxSegments;
+        this.blockBytes = (int) Math.min(BUFFER_RECORDS * RECORD_SIZE, this.segmentBytes);
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "history-*.seg")) {
+            for (Path file : stale) {
+                Files.delete(file);
+            }
+        }
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(i);
+        }
+        this.writer = new Thread(this::writeLoop, "transaction-history-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private static int checkCapacity(int recentCapacity) {
+        if (recentCapacity < 1) {
+            throw new IllegalArgumentException("Recent capacity must be positive.");
+        }
+        return recentCapacity;
+    }
+
+    // Called while the account's lock is held, so per account this runs one at a time and in balance order
+    @Override
+    public void publish(EventType type, String subject, long amountMinor, long balanceMinor) {
+        if (type == EventType.CUSTOMER_ADDED) {
+            return; // Not an account transaction
+        }
+        Ring ring = rings.computeIfAbsent(subject, key -> new Ring(nextStripe()));
+        long timestampAndType = System.currentTimeMillis() << 8 | type.ordinal();
+        synchronized (ring) {
+            ring.append(timestampAndType, amountMinor, balanceMinor);
+        }
+    }
+
+    // Number of transactions recorded for the account, including any no longer kept
+    public long getTransactionCount(String accountNumber) {
+        Ring ring = rings.get(accountNumber);
+        if (ring == null) {
+            return 0;
+        }
+        synchronized (ring) {
+            return ring.count;
+        }
+    }
+
+    // Up to limit transactions with a sequence below beforeSequence, newest first. Pass Long.MAX_VALUE for
+    // the first page and the last returned sequence for the next one. Reaching a page far back means
+    // walking the spilled records after it one by one, so long statements are better streamed with forEach.
+    public List<Transaction> page(String accountNumber, long beforeSequence, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive.");
+        }
+        List<Transaction> page = new ArrayList<>(Math.min(limit, recentCapacity));
+        forEach(accountNumber, beforeSequence, (sequence, type, amountMinor, balanceMinor, timestampMillis) -> {
+            page.add(new Transaction(sequence, type, amountMinor, balanceMinor, timestampMillis));
+            return page.size() < limit;
+        });
+        return page;
+    }
+
+    // Feeds the account's transactions with a sequence below beforeSequence to the visitor, newest first,
+    // until it returns false or the kept history runs out. Returns how many it visited.
+    public long forEach(String accountNumber, long beforeSequence, Visitor visitor) {
+        Ring ring = rings.get(accountNumber);
+        if (ring == null) {
+            return 0;
+        }
+        long[] recent;
+        long newest;
+        long spilledHead;
+        synchronized (ring) {
+            newest = Math.min(ring.count, beforeSequence - 1);
+            recent = ring.copyNewestFirst(ring.count - newest);
+            spilledHead = ring.spilledHead;
+        }
+        long visited = 0;
+        for (int i = 0; i < recent.length; i += ENTRY_LONGS) {
+            visited++;
+            if (!visit(visitor, newest - i / ENTRY_LONGS, recent[i], recent[i + 1], recent[i + 2])) {
+                return visited;
+            }
+        }
+        // Spilled records are never changed, so the rest of the walk needs no lock on the ring
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        for (long position = spilledHead; position != NONE && ring.stripe.readRecord(position, record); position = record.getLong(32)) {
+            long sequence = record.getLong(0);
+            if (sequence >= beforeSequence) {
+                continue;
+            }
+            visited++;
+            if (!visit(visitor, sequence, record.getLong(8), record.getLong(16), record.getLong(24))) {
+                break;
+            }
+        }
+        return visited;
+    }
+
+    private static boolean visit(Visitor visitor, long sequence, long timestampAndType, long amountMinor, long balanceMinor) {
+        return visitor.visit(sequence, TYPES[(int) (timestampAndType & 0xFF)], amountMinor, balanceMinor, timestampAndType >>> 8);
+    }
+
+    // Writes out buffered spilled records and closes the segments. Rethrows the first spill failure.
+    @Override
+    public void close() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        synchronized (stripes) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Stripe stripe : stripes) {
+                stripe.close();
+            }
+            toWrite.add(STOP);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing out transaction history.", e);
+            }
+            for (Stripe stripe : stripes) {
+                for (FileChannel channel : stripe.segments.values()) {
+                    channel.close();
+                }
+                stripe.segments.clear();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Stripe nextStripe() {
+        return stripes == null ? null : stripes[Math.floorMod(nextStripe.getAndIncrement(), STRIPES)];
+    }
+
+    // Writes each block handed off by a stripe, in the order they were handed off
+    private void writeLoop() {
+        while (true) {
+            Block block;
+            try {
+                block = toWrite.take();
+            } catch (InterruptedException e) {
+                continue; // Only close stops the writer, so nothing is left unwritten
+            }
+            if (block == STOP) {
+                return;
+            }
+            block.stripe.write(block);
+        }
+    }
+
+    // A full (or, on close, partial) buffer of a stripe's spilled records, waiting for the writer
+    private static final class Block {
+        final Stripe stripe;
+        final long start; // Position of its first record
+        final ByteBuffer data; // Flipped: the records are from 0 to limit
+
+        Block(Stripe stripe, long start, ByteBuffer data) {
+            this.stripe = stripe;
+            this.start = start;
+            this.data = data;
+        }
+
+        boolean contains(long position) {
+            return position >= start && position < start + data.limit();
+        }
+    }
+
+    // One of the spill logs. Its lock is held only to copy a record in or out of memory, never across
+    // a write to disk: full buffers go to the writer thread, and are read from memory until written.
+    private final class Stripe {
+        private final int index;
+        private final ReentrantLock lock = new ReentrantLock(); // Guards everything below but segments
+        private final Condition written = lock.newCondition(); // Signalled when the writer finishes a block
+        private final ArrayDeque<Block> unwritten = new ArrayDeque<>(); // Handed to the writer, oldest first
+        private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>(); // Written buffers, for reuse
+        private ByteBuffer buffer; // Records from bufferStart up to writePosition
+        private long bufferStart;
+        private long writePosition;
+        private long oldestPosition; // Records before this were in segments since deleted, or lost
+        private boolean closed;
+        final Map<Long, FileChannel> segments = new ConcurrentHashMap<>(); // Changed by the writer only
+
+        Stripe(int index) {
+            this.index = index;
+            this.buffer = ByteBuffer.allocate(blockBytes);
+        }
+
+        // Appends a record evicted from a ring and returns its position, or NONE if it could not be kept.
+        // Runs under the ring's monitor, and its account's lock; see handOff for the only wait.
+        long spill(long sequence, long timestampAndType, long amountMinor, long balanceMinor, long previous) {
+            lock.lock();
+            try {
+                if (closed || failure != null) {
+                    return NONE;
+                }
+                long position = writePosition;
+                if (position % segmentBytes == 0) { // First record of a segment; the writer deletes the expired one
+                    oldestPosition = Math.max(oldestPosition, (position / segmentBytes - maxSegments + 1) * segmentBytes);
+                }
+                buffer.putLong(sequence).putLong(timestampAndType).putLong(amountMinor).putLong(balanceMinor).putLong(previous);
+                writePosition += RECORD_SIZE;
+                if (!buffer.hasRemaining() || writePosition % segmentBytes == 0) {
+                    handOff(); // A buffer never spans two segments, so it goes out in one positional write
+                }
+                return position;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Queues the buffer for the writer and starts a new one. Caller holds the lock. Waits only when the
+        // writer is MAX_UNWRITTEN_BLOCKS behind on this stripe, i.e. the disk can't keep up at all.
+        private void handOff() {
+            while (unwritten.size() >= MAX_UNWRITTEN_BLOCKS && failure == null) {
+                written.awaitUninterruptibly();
+            }
+            if (failure != null || buffer.position() == 0) {
+                return; // The writer dropped what was buffered
+            }
+            buffer.flip();
+            Block block = new Block(this, bufferStart, buffer);
+            unwritten.addLast(block);
+            toWrite.add(block);
+            ByteBuffer next = free.poll();
+            buffer = next != null ? next : ByteBuffer.allocate(blockBytes);
+            bufferStart = writePosition;
+        }
+
+        // Called by close: stops spilling and hands off what is buffered
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                handOff();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Runs on the writer thread, without the lock
+        void write(Block block) {
+            if (failure == null) {
+                try {
+                    long segment = block.start / segmentBytes;
+                    FileChannel channel = segments.get(segment);
+                    if (channel == null) {
+                        channel = openSegment(segment);
+                    }
+                    ByteBuffer bytes = block.data.duplicate();
+                    long offset = block.start % segmentBytes;
+                    while (bytes.hasRemaining()) {
+                        offset += channel.write(bytes, offset);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            lock.lock();
+            try {
+                unwritten.remove(block);
+                if (failure != null) {
+                    oldestPosition = writePosition; // Chains into the lost records end here
+                    unwritten.clear();
+                    buffer.clear();
+                    bufferStart = writePosition;
+                } else if (free.size() < MAX_UNWRITTEN_BLOCKS) {
+                    free.add(block.data.clear()); // Readers only copy from it under the lock
+                }
+                written.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Runs on the writer thread
+        private FileChannel openSegment(long segment) throws IOException {
+            FileChannel channel = FileChannel.open(segmentFile(segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.put(segment, channel);
+            long expired = segment - maxSegments;
+            FileChannel oldest = segments.remove(expired);
+            if (oldest != null) {
+                oldest.close(); // Readers still on it see ClosedChannelException and stop there
+                Files.deleteIfExists(segmentFile(expired));
+            }
+            return channel;
+        }
+
+        private Path segmentFile(long segment) {
+            return directory.resolve(String.format("history-%02d-%08d.seg", index, segment));
+        }
+
+        // Reads the spilled record at position into record; false if it is no longer kept
+        boolean readRecord(long position, ByteBuffer record) {
+            record.clear();
+            FileChannel channel;
+            lock.lock();
+            try {
+                if (position < oldestPosition || position >= writePosition) {
+                    return false;
+                }
+                if (position >= bufferStart) {
+                    record.put(buffer.array(), (int) (position - bufferStart), RECORD_SIZE).flip();
+                    return true;
+                }
+                for (Block block : unwritten) {
+                    if (block.contains(position)) {
+                        record.put(block.data.array(), (int) (position - block.start), RECORD_SIZE).flip();
+                        return true;
+                    }
+                }
+                channel = segments.get(position / segmentBytes); // Written, since it is no longer in memory
+            } finally {
+                lock.unlock();
+            }
+            if (channel == null) {
+                return false;
+            }
+            try {
+                long offset = position % segmentBytes;
+                while (record.hasRemaining()) {
+                    int read = channel.read(record, offset + record.position());
+                    if (read < 0) {
+                        return false;
+                    }
+                }
+                record.flip();
+                return true;
+            } catch (ClosedChannelException e) {
+                return false; // The segment was deleted or the history closed
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // One account's recent entries. Guarded by its own monitor, which is uncontended apart from queries:
+    // the account's lock already orders its writers.
+    private final class Ring {
+        private long[] entries = new long[Math.min(INITIAL_RING_ENTRIES, recentCapacity) * ENTRY_LONGS];
+        private int oldest; // Entry index of the oldest kept entry
+        private int size;
+        private long count; // Sequence of the newest entry
+        private long spilledHead = NONE; // Position of the newest spilled record in stripe
+        private final Stripe stripe; // Null without a directory
+
+        Ring(Stripe stripe) {
+            this.stripe = stripe;
+        }
+
+        void append(long timestampAndType, long amountMinor, long balanceMinor) {
+            int capacity = entries.length / ENTRY_LONGS;
+            if (size == capacity) {
+                if (capacity < recentCapacity) {
+                    grow(Math.min(capacity * 2, recentCapacity));
+                } else {
+                    evictOldest();
+                }
+            }
+            int at = (oldest + size) % (entries.length / ENTRY_LONGS) * ENTRY_LONGS;
+            entries[at] = timestampAndType;
+            entries[at + 1] = amountMinor;
+            entries[at + 2] = balanceMinor;
+            size++;
+            count++;
+        }
+
+        private void grow(int capacity) {
+            long[] grown = new long[capacity * ENTRY_LONGS];
+            int first = oldest * ENTRY_LONGS;
+            int tail = Math.min(size * ENTRY_LONGS, entries.length - first);
+            System.arraycopy(entries, first, grown, 0, tail);
+            System.arraycopy(entries, 0, grown, tail, size * ENTRY_LONGS - tail);
+            entries = grown;
+            oldest = 0;
+        }
+
+        private void evictOldest() {
+            if (directory != null) {
+                int at = oldest * ENTRY_LONGS;
+                long position = stripe.spill(count - size + 1, entries[at], entries[at + 1], entries[at + 2], spilledHead);
+                if (position != NONE) {
+                    spilledHead = position;
+                }
+            }
+            oldest = (oldest + 1) % (entries.length / ENTRY_LONGS);
+            size--;
+        }
+
+        // Copies the kept entries, newest first, leaving out the skip newest ones
+        long[] copyNewestFirst(long skip) {
+            int kept = (int) Math.max(0, size - skip);
+            long[] copy = new long[kept * ENTRY_LONGS];
+            int capacity = entries.length / ENTRY_LONGS;
+            for (int i = 0; i < kept; i++) {
+                int at = (oldest + kept - 1 - i) % capacity * ENTRY_LONGS;
+                System.arraycopy(entries, at, copy, i * ENTRY_LONGS, ENTRY_LONGS);
+            }
+            return copy;
+        }
+    }
+}
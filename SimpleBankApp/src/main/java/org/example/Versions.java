@@ -0,0 +1,96 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Multi-version bookkeeping behind Bank.openView. A view's cut is the moment it is added to the open
+// array. Every balance change checks that array once, while holding all its account locks, and saves
+// the balance of each account it touches into each view it finds before changing it (once per view),
+// so a view reads either that saved balance or, for accounts not changed since, the live one.
+//
+// This gives a consistent cut without writers registering anywhere: a writer checks the array only once
+// it holds all its locks, and BankView reads each account under its lock too. A change that missed the
+// view held its locks from before the cut, so the view's read of each of its accounts waits for it and
+// sees it; a change that found the view saved first. Per account, every change before the cut comes
+// before every change after it, so the saved balance is exactly the balance at the cut.
+//
+// With no view open, a writer pays one volatile read.
+final class Versions {
+    static final Versions NONE = new Versions(); // For accounts outside any bank, which never opens a view
+    static final long NOT_OPEN = Long.MIN_VALUE; // Saved for accounts opened after a view's cut
+
+    private volatile BankView[] open = new BankView[0];
+    private final ReentrantLock viewLock = new ReentrantLock(); // Serializes opening and closing views
+
+    // Caller holds the account's lock and is about to change its balance
+    void beforeWrite(Account account) {
+        for (BankView view : open) {
+            save(view, account);
+        }
+    }
+
+    // For a change touching both accounts, with both locks held. Reads the open views once, so a cut can
+    // never fall between the two sides.
+    void beforeWrite(Account first, Account second) {
+        for (BankView view : open) {
+            save(view, first);
+            save(view, second);
+        }
+    }
+
+    // For a batch holding every account's lock at once
+    void beforeWrite(List<Account> accounts) {
+        for (BankView view : open) {
+            for (Account account : accounts) {
+                save(view, account);
+            }
+        }
+    }
+
+    // Called before a new account becomes visible, with Bank's registration lock held shared, so views
+    // cut earlier leave it out
+    void opened(Account account) {
+        for (BankView view : open) {
+            view.saved.put(account.getNumber(), NOT_OPEN);
+        }
+    }
+
+    // Caller holds Bank's registration lock exclusively, so no account is half registered at the cut
+    BankView openView(AccountStore accounts) {
+        viewLock.lock();
+        try {
+            BankView view = new BankView(this, accounts);
+            BankView[] grown = Arrays.copyOf(open, open.length + 1);
+            grown[open.length] = view;
+            open = grown; // The cut
+            return view;
+        } finally {
+            viewLock.unlock();
+        }
+    }
+
+    void close(BankView view) {
+        viewLock.lock();
+        try {
+            BankView[] current = open;
+            if (!Arrays.asList(current).contains(view)) {
+                return;
+            }
+            BankView[] remaining = new BankView[current.length - 1];
+            int next = 0;
+            for (BankView other : current) {
+                if (other != view) {
+                    remaining[next++] = other;
+                }
+            }
+            open = remaining;
+        } finally {
+            viewLock.unlock();
+        }
+    }
+
+    private static void save(BankView view, Account account) {
+        view.saved.putIfAbsent(account.getNumber(), account.getBalanceMinor());
+    }
+}
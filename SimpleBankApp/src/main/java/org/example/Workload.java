@@ -0,0 +1,201 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Production-like synthetic traffic for LoadHarness: a population of customers and accounts, and an
+// endless sequence of deposits, withdrawals and lookups against them.
+//
+// Account popularity follows a Zipf distribution: the account of rank k (the k-th opened, from 1) is
+// picked with probability proportional to 1 / k^zipfExponent, so with the usual exponent of about 1 a
+// few accounts take most of the traffic, as they do in production; 0 spreads it evenly. Withdrawals that
+// should be declined ask for far more than any account holds; others may still be declined if an
+// account runs dry, so declineShare is a lower bound on the rejection rate.
+//
+// Operation i of a given seed is a pure function of the two, so any thread can generate any operation
+// without coordinating with the others, and a sequence can be written to a trace and replayed exactly.
+public final class Workload {
+    static final long INITIAL_DEPOSIT_MINOR = 100_000; // 1,000.00
+    static final double INTEREST_RATE = 0.01;
+    static final double OVERDRAFT_LIMIT = 500.0;
+    static final long MAX_AMOUNT_MINOR = 10_000; // Deposits and withdrawals are 0.01 to 100.00
+    static final long DECLINED_AMOUNT_MINOR = 1_000_000_000_000L; // More than any account here will hold
+
+    public enum Kind {
+        DEPOSIT,
+        WITHDRAWAL,
+        LOOKUP
+    }
+
+    // One operation: what to do, to which account (its index in the list populate returns), and how much
+    public static final class Step {
+        private final Kind kind;
+        private final int account;
+        private final long amountMinor; // 0 for a lookup
+
+        Step(Kind kind, int account, long amountMinor) {
+            this.kind = kind;
+            this.account = account;
+            this.amountMinor = amountMinor;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public int getAccount() {
+            return account;
+        }
+
+        public long getAmountMinor() {
+            return amountMinor;
+        }
+
+        // A trace line: kind,account,amount, e.g. deposit,17,2500
+        @Override
+        public String toString() {
+            return kind.name().toLowerCase(Locale.ROOT) + "," + account + "," + amountMinor;
+        }
+
+        // Null if the line is malformed
+        static Step parse(String line) {
+            String[] fields = line.trim().split(",");
+            if (fields.length != 3) {
+                return null;
+            }
+            try {
+                Kind kind = Kind.valueOf(fields[0].trim().toUpperCase(Locale.ROOT));
+                int account = Integer.parseInt(fields[1].trim());
+                long amountMinor = Long.parseLong(fields[2].trim());
+                if (account < 0 || (kind != Kind.LOOKUP && amountMinor <= 0)) {
+                    return null;
+                }
+                return new Step(kind, account, amountMinor);
+            } catch (IllegalArgumentException e) { // Also NumberFormatException
+                return null;
+            }
+        }
+    }
+
+    private final int customers;
+    private final int accounts;
+    private final double savingsShare;
+    private final double depositShare;
+    private final double withdrawalShare;
+    private final double declineShare;
+    private final double[] popularity; // Cumulative probability of the accounts up to each rank
+
+    // Lookups make up whatever share deposits and withdrawals leave; declineShare is the share of
+    // withdrawals meant to be declined
+    public Workload(int customers, int accounts, double savingsShare, double zipfExponent,
+                    double depositShare, double withdrawalShare, double declineShare) {
+        if (customers < 1 || accounts < 1) {
+            throw new IllegalArgumentException("Customers and accounts must be positive.");
+        }
+        if (!isShare(savingsShare) || !isShare(depositShare) || !isShare(withdrawalShare) || !isShare(declineShare)) {
+            throw new IllegalArgumentException("Shares must be between 0 and 1.");
+        }
+        if (depositShare + withdrawalShare > 1) {
+            throw new IllegalArgumentException("Deposit and withdrawal shares cannot add up to more than 1.");
+        }
+        if (!(zipfExponent >= 0)) {
+            throw new IllegalArgumentException("Zipf exponent cannot be negative.");
+        }
+        this.customers = customers;
+        this.accounts = accounts;
+        this.savingsShare = savingsShare;
+        this.depositShare = depositShare;
+        this.withdrawalShare = withdrawalShare;
+        this.declineShare = declineShare;
+        this.popularity = new double[accounts];
+        double total = 0;
+        for (int rank = 1; rank <= accounts; rank++) {
+            total += 1 / Math.pow(rank, zipfExponent);
+            popularity[rank - 1] = total;
+        }
+        for (int i = 0; i < accounts; i++) {
+            popularity[i] /= total;
+        }
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    // Adds the customers and accounts to the bank and returns the accounts by rank, most popular first.
+    // Accounts go to customers in turn and are savings or checking by a fixed draw, so the same workload
+    // always builds the same population.
+    public List<Account> populate(Bank bank) {
+        List<String> names = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            names.add("Customer " + i);
+        }
+        List<Customer> owners = bank.addCustomers(names);
+        List<Account> unopened = new ArrayList<>(accounts);
+        double initialDeposit = Money.toMajor(INITIAL_DEPOSIT_MINOR);
+        for (int i = 0; i < accounts; i++) {
+            Customer owner = owners.get(i % customers);
+            unopened.add(unit(mix(i)) < savingsShare
+                    ? new SavingsAccount(owner, initialDeposit, INTEREST_RATE)
+                    : new CheckingAccount(owner, initialDeposit, OVERDRAFT_LIMIT));
+        }
+        return bank.openAccounts(unopened);
+    }
+
+    // Operation index of the sequence for seed
+    public Step step(long seed, long index) {
+        long base = mix(seed ^ mix(index));
+        double kindDraw = unit(mix(base + 1));
+        int account = rank(unit(mix(base + 2)));
+        long amountMinor = 1 + Long.remainderUnsigned(mix(base + 3), MAX_AMOUNT_MINOR);
+        if (kindDraw < depositShare) {
+            return new Step(Kind.DEPOSIT, account, amountMinor);
+        }
+        if (kindDraw < depositShare + withdrawalShare) {
+            boolean decline = unit(mix(base + 4)) < declineShare;
+            return new Step(Kind.WITHDRAWAL, account, decline ? DECLINED_AMOUNT_MINOR : amountMinor);
+        }
+        return new Step(Kind.LOOKUP, account, 0);
+    }
+
+    // Writes the first operations of the sequence for seed, one Step per line, for LoadHarness.replay
+    public void writeTrace(Path file, long seed, long operations) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (long i = 0; i < operations; i++) {
+                writer.write(step(seed, i).toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    // Index of the first account whose cumulative probability exceeds draw
+    private int rank(double draw) {
+        int found = Arrays.binarySearch(popularity, draw);
+        int index = found >= 0 ? found + 1 : -found - 1;
+        return Math.min(index, accounts - 1); // Rounding can leave the last total a hair under 1
+    }
+
+    private static boolean isShare(double share) {
+        return share >= 0 && share <= 1;
+    }
+
+    // One SplitMix64 step: spreads any input (even 0, 1, 2...) over all 64 bits
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Uniform in [0, 1)
+    private static double unit(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+}
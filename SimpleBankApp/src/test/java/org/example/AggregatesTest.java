@@ -0,0 +1,139 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AggregatesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Totals follow deposits, withdrawals, overdrafts, transfers and interest")
+    void aggregates_afterOperations_matchBalances() throws InsufficientFundsException {
+        // Arrange
+        Bank bank = new Bank();
+        Customer alice = bank.addCustomer("Alice");
+        Customer bob = bank.addCustomer("Bob");
+        SavingsAccount savings = (SavingsAccount) bank.openSavingsAccount(alice, 100.0, 0.1);
+        Account checking = bank.openCheckingAccount(bob, 20.0, 50.0);
+
+        // Act
+        checking.withdraw(50.0); // Balance -30
+        savings.deposit(10.0); // Balance 110
+        savings.applyInterest(); // Balance 121
+        bank.transfer(savings, checking, 40.0); // 81 and 10
+        checking.withdraw(25.0); // Balance -15
+
+        // Assert
+        Aggregates aggregates = bank.getAggregates();
+        assertThat(aggregates.getTotalDeposits()).isEqualTo(81.0);
+        assertThat(aggregates.getOverdraftExposure()).isEqualTo(15.0);
+        assertThat(aggregates.getTotalOverdraftLimit()).isEqualTo(50.0);
+        assertThat(bank.getNetWorth(alice)).isEqualTo(81.0);
+        assertThat(bank.getNetWorth(bob)).isEqualTo(-15.0);
+        assertThatIllegalArgumentException().isThrownBy(() -> bank.getNetWorth(new Customer("Carol")))
+                .withMessage("Customer does not exist in this bank.");
+    }
+
+    @Test
+    @DisplayName("After concurrent operations the totals equal a full scan, for both storages")
+    void aggregates_concurrentOperations_equalScan() throws InterruptedException {
+        for (AccountStorage storage : AccountStorage.values()) {
+            // Arrange
+            Bank bank = new Bank(EventSink.NO_OP, Metrics.NO_OP, storage);
+            List<Customer> customers = new ArrayList<>();
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Customer customer = bank.addCustomer("Customer " + i);
+                customers.add(customer);
+                accounts.add(bank.openCheckingAccount(customer, 10.0, 100.0));
+                accounts.add(bank.openSavingsAccount(customer, 10.0, 0.01));
+            }
+            List<Thread> writers = new ArrayList<>();
+
+            // Act
+            for (int t = 0; t < 4; t++) {
+                Thread writer = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20_000; i++) {
+                        Account account = accounts.get(random.nextInt(accounts.size()));
+                        Account other = accounts.get(random.nextInt(accounts.size()));
+                        long amount = 1 + random.nextInt(2_000);
+                        switch (random.nextInt(3)) {
+                            case 0 -> account.depositMinor(amount);
+                            case 1 -> account.tryWithdrawMinor(amount);
+                            default -> {
+                                if (!account.equals(other)) {
+                                    bank.tryTransferMinor(account, other, amount);
+                                }
+                            }
+                        }
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+
+            // Assert
+            assertMatchesScan(bank, customers);
+        }
+    }
+
+    @Test
+    @DisplayName("A bank recovered from its journal has the same totals")
+    void recover_rebuildsAggregates() throws Exception {
+        // Arrange
+        Path path = directory.resolve("bank.journal");
+        List<Customer> customers = new ArrayList<>();
+        try (Journal journal = Journal.open(path)) {
+            Bank bank = Bank.recover(journal);
+            Customer alice = bank.addCustomer("Alice");
+            Account checking = bank.openCheckingAccount(alice, 5.0, 30.0);
+            Account savings = bank.openSavingsAccount(alice, 50.0, 0.02);
+            checking.withdraw(20.0);
+            bank.transfer(savings, checking, 5.0);
+            customers.add(alice);
+        }
+
+        // Act
+        try (Journal journal = Journal.open(path)) {
+            Bank recovered = Bank.recover(journal);
+
+            // Assert
+            assertThat(recovered.getAggregates().getTotalDeposits()).isEqualTo(45.0);
+            assertThat(recovered.getAggregates().getOverdraftExposure()).isEqualTo(10.0);
+            assertThat(recovered.getAggregates().getTotalOverdraftLimit()).isEqualTo(30.0);
+            assertMatchesScan(recovered, recovered.getAllCustomers());
+        }
+    }
+
+    private static void assertMatchesScan(Bank bank, List<Customer> customers) {
+        long deposits = 0;
+        long overdrawn = 0;
+        for (Account account : bank.getAllAccounts()) {
+            deposits += Math.max(account.getBalanceMinor(), 0);
+            overdrawn += Math.max(-account.getBalanceMinor(), 0);
+        }
+        assertThat(bank.getAggregates().getTotalDepositsMinor()).isEqualTo(deposits);
+        assertThat(bank.getAggregates().getOverdraftExposureMinor()).isEqualTo(overdrawn);
+        for (Customer customer : customers) {
+            long netWorth = 0;
+            for (Account account : bank.getAccountsForCustomer(customer)) {
+                netWorth += account.getBalanceMinor();
+            }
+            assertThat(bank.getNetWorthMinor(customer)).isEqualTo(netWorth);
+        }
+    }
+}
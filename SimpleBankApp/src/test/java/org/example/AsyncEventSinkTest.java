@@ -0,0 +1,69 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AsyncEventSinkTest {
+
+    @Test
+    @DisplayName("Published events reach the writer in order")
+    void publish_thenClose_writesAllEventsInOrder() throws InterruptedException {
+        // Arrange
+        List<Long> written = Collections.synchronizedList(new ArrayList<>());
+        AsyncEventSink sink = new AsyncEventSink(8, AsyncEventSink.OverflowPolicy.BLOCK,
+                (type, subject, amount, balance) -> written.add(amount));
+
+        // Act: more events than slots, so producers have to wait for the writer
+        for (long i = 1; i <= 100; i++) {
+            sink.publish(EventType.DEPOSIT, "1000", i, i);
+        }
+        sink.close();
+
+        // Assert
+        assertThat(written).hasSize(100).isSorted();
+        assertThat(sink.getDroppedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Drop policy discards events when the ring is full")
+    void publish_ringFullWithDropPolicy_countsDroppedEvents() throws InterruptedException {
+        // Arrange: a writer that stalls until released, so the ring fills up
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> written = Collections.synchronizedList(new ArrayList<>());
+        AsyncEventSink sink = new AsyncEventSink(4, AsyncEventSink.OverflowPolicy.DROP,
+                (type, subject, amount, balance) -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    written.add(amount);
+                });
+
+        // Act
+        for (long i = 1; i <= 20; i++) {
+            sink.publish(EventType.WITHDRAWAL, "1000", i, 0);
+        }
+        release.countDown();
+        sink.close();
+
+        // Assert: at most the ring plus the event in the writer's hands got through
+        assertThat(written.size() + sink.getDroppedCount()).isEqualTo(20);
+        assertThat(sink.getDroppedCount()).isGreaterThanOrEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Creating a sink with a non power-of-two capacity throws exception")
+    void create_capacityNotPowerOfTwo_throwsException() {
+        assertThatIllegalArgumentException().isThrownBy(() -> {
+            new AsyncEventSink(10, AsyncEventSink.OverflowPolicy.DROP, (type, subject, amount, balance) -> { });
+        }).withMessage("Capacity must be a power of two.");
+    }
+}
@@ -0,0 +1,96 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BalanceIndexTest {
+
+    @Test
+    @DisplayName("Range queries return accounts in balance and headroom order, following later changes")
+    void rangeQueries_afterChanges_followBalances() throws InsufficientFundsException {
+        // Arrange
+        Bank bank = new Bank();
+        Customer alice = bank.addCustomer("Alice");
+        Account rich = bank.openSavingsAccount(alice, 1000.0, 0.01);
+        Account poor = bank.openSavingsAccount(alice, 5.0, 0.01);
+        CheckingAccount overdrawn = (CheckingAccount) bank.openCheckingAccount(alice, 0.0, 100.0);
+        Account safe = bank.openCheckingAccount(alice, 50.0, 100.0);
+        overdrawn.withdraw(80.0); // Headroom 20
+
+        // Act
+        BalanceIndex index = bank.getBalanceIndex(); // Built from the existing accounts
+        CheckingAccount opened = (CheckingAccount) bank.openCheckingAccount(alice, 10.0, 0.0); // Indexed as it opens, headroom 10
+        bank.transfer(rich, safe, 1.0); // Headroom 151
+
+        // Assert
+        assertThat(index.getAccountsWithBalanceBelow(50.0)).containsExactly(overdrawn, poor, opened);
+        assertThat(index.getCheckingAccountsNearOverdraftLimit(20.0)).containsExactly(opened, overdrawn);
+        List<String> scanned = new ArrayList<>();
+        index.forEachBalanceBetweenMinor(500, 100_000, (account, balance) -> scanned.add(account.getAccountNumber() + "=" + balance));
+        assertThat(scanned).containsExactly(poor.getAccountNumber() + "=500", opened.getAccountNumber() + "=1000",
+                safe.getAccountNumber() + "=5100", rich.getAccountNumber() + "=99900");
+        assertThatIllegalArgumentException().isThrownBy(() -> index.getCheckingAccountsNearOverdraftLimit(-1.0))
+                .withMessage("Distance cannot be negative.");
+    }
+
+    @Test
+    @DisplayName("After concurrent transfers each account is indexed once, at its balance, for both storages")
+    void index_concurrentTransfers_matchesBalances() throws InterruptedException {
+        for (AccountStorage storage : AccountStorage.values()) {
+            // Arrange
+            Bank bank = new Bank(EventSink.NO_OP, Metrics.NO_OP, storage);
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Customer customer = bank.addCustomer("Customer " + i);
+                accounts.add(i % 2 == 0 ? bank.openCheckingAccount(customer, 100.0, 50.0) : bank.openSavingsAccount(customer, 100.0, 0.01));
+            }
+            Thread[] threads = new Thread[4];
+
+            // Act
+            for (int t = 0; t < threads.length; t++) {
+                int thread = t;
+                threads[t] = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 5_000; i++) {
+                        if (thread == 0 && i == 1_000) {
+                            bank.getBalanceIndex(); // Built while writers are busy
+                        }
+                        Account from = accounts.get(random.nextInt(accounts.size()));
+                        Account to = accounts.get(random.nextInt(accounts.size()));
+                        if (from != to) {
+                            bank.tryTransferMinor(from, to, 1 + random.nextInt(3_000));
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // Assert
+            Map<Long, Long> indexed = new HashMap<>();
+            bank.getBalanceIndex().forEachBalanceBetweenMinor(Long.MIN_VALUE, Long.MAX_VALUE,
+                    (account, balance) -> assertThat(indexed.put(account.getNumber(), balance)).isNull());
+            Map<Long, Long> headrooms = new HashMap<>();
+            bank.getBalanceIndex().forEachHeadroomBetweenMinor(Long.MIN_VALUE, Long.MAX_VALUE,
+                    (account, headroom) -> assertThat(headrooms.put(account.getNumber(), headroom)).isNull());
+            assertThat(indexed).hasSize(accounts.size());
+            assertThat(headrooms).hasSize(accounts.size() / 2);
+            for (Account account : accounts) {
+                assertThat(indexed).containsEntry(account.getNumber(), account.getBalanceMinor());
+                if (account instanceof CheckingAccount) {
+                    assertThat(headrooms).containsEntry(account.getNumber(), account.getAvailableFundsMinor());
+                }
+            }
+        }
+    }
+}
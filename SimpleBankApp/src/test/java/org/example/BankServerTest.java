@@ -0,0 +1,154 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BankServerTest {
+
+    private Bank bank;
+    private BankServer server;
+    private URI base;
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bank = new Bank();
+        server = new BankServer(bank, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        base = URI.create("http://localhost:" + server.getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Customers and accounts can be created, funded and looked up over HTTP")
+    void accountLifecycle_overHttp_updatesBank() throws Exception {
+        // Arrange
+        String customerId = BankLoadClient.field(post("/customers", "name=Alice+Smith").body(), "id");
+
+        // Act
+        HttpResponse<String> opened = post("/accounts", "type=checking&customer=" + customerId + "&initialDeposit=100&overdraftLimit=50");
+        String number = BankLoadClient.field(opened.body(), "accountNumber");
+        HttpResponse<String> deposited = post("/accounts/" + number + "/deposit", "amount=25.50");
+        HttpResponse<String> declined = post("/accounts/" + number + "/withdraw", "amount=500");
+        HttpResponse<String> withdrawn = post("/accounts/" + number + "/withdraw?amount=150", "");
+        HttpResponse<String> found = get("/accounts/" + number);
+
+        // Assert
+        assertThat(opened.statusCode()).isEqualTo(201);
+        assertThat(deposited.body()).contains("\"balance\":125.5");
+        assertThat(declined.statusCode()).isEqualTo(409);
+        assertThat(withdrawn.statusCode()).isEqualTo(200);
+        assertThat(found.body()).contains("\"type\":\"checking\"", "\"overdraftLimit\":50.0", "\"balance\":-24.5");
+        assertThat(bank.findCustomer(customerId).orElseThrow().getName()).isEqualTo("Alice Smith");
+        assertThat(get("/customers/" + customerId + "/accounts").body()).contains(number);
+    }
+
+    @Test
+    @DisplayName("Transfers move money, and bad requests get client error statuses")
+    void transfer_andErrors_overHttp() throws Exception {
+        // Arrange
+        Customer alice = bank.addCustomer("Alice");
+        Account from = bank.openSavingsAccount(alice, 100.0, 0.01);
+        Account to = bank.openCheckingAccount(alice, 0.0, 0.0);
+
+        // Act
+        HttpResponse<String> transferred = post("/transfers", "from=" + from.getAccountNumber() + "&to=" + to.getAccountNumber() + "&amount=40");
+
+        // Assert
+        assertThat(transferred.statusCode()).isEqualTo(200);
+        assertThat(from.getBalance()).isEqualTo(60.0);
+        assertThat(to.getBalance()).isEqualTo(40.0);
+        assertThat(get("/accounts/999999999").statusCode()).isEqualTo(404);
+        assertThat(post("/accounts/" + to.getAccountNumber() + "/deposit", "amount=-5").statusCode()).isEqualTo(400);
+        assertThat(post("/accounts/" + to.getAccountNumber() + "/deposit", "amount=lots").body()).contains("must be a number");
+        assertThat(post("/customers", "name=").statusCode()).isEqualTo(400);
+        assertThat(post("/accounts", "type=gold&customer=" + alice.getId()).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("A deposit retried with the same Idempotency-Key header is applied once")
+    void deposit_retriedWithIdempotencyKey_appliedOnce() throws Exception {
+        // Arrange
+        Account account = bank.openSavingsAccount(bank.addCustomer("Alice"), 0.0, 0.01);
+        HttpRequest deposit = HttpRequest.newBuilder(base.resolve("/accounts/" + account.getAccountNumber() + "/deposit"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Idempotency-Key", "retry-me")
+                .POST(HttpRequest.BodyPublishers.ofString("amount=10")).build();
+
+        // Act
+        HttpResponse<String> first = http.send(deposit, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> retried = http.send(deposit, HttpResponse.BodyHandlers.ofString());
+
+        // Assert
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(retried.statusCode()).isEqualTo(200);
+        assertThat(account.getBalance()).isEqualTo(10.0);
+    }
+
+    @Test
+    @DisplayName("A request that fails on the server gets a 500 response instead of a dropped connection")
+    void deposit_journalFailed_gets500(@TempDir Path directory) throws Exception {
+        // Arrange
+        Journal journal = Journal.open(directory.resolve("bank.journal"));
+        Bank journaled = Bank.recover(journal);
+        Account account = journaled.openSavingsAccount(journaled.addCustomer("Alice"), 0.0, 0.01);
+        journal.close(); // Every later change fails with UncheckedIOException
+        try (BankServer failing = new BankServer(journaled, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            failing.start();
+
+            // Act
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + failing.getPort() + "/accounts/" + account.getAccountNumber() + "/deposit"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString("amount=10")).build(), HttpResponse.BodyHandlers.ofString());
+
+            // Assert
+            assertThat(response.statusCode()).isEqualTo(500);
+            assertThat(response.body()).isEqualTo("{\"error\":\"Internal server error.\"}");
+        }
+    }
+
+    @Test
+    @DisplayName("The load client drives many concurrent clients without errors")
+    void loadClient_manyClients_completesWithoutErrors() throws Exception {
+        // Arrange
+        BankLoadClient client = new BankLoadClient(base, 200, 20);
+
+        // Act
+        BankLoadClient.Report report = client.run(Duration.ofMillis(500));
+
+        // Assert
+        assertThat(report.getRequests()).isPositive();
+        assertThat(report.getErrors()).isZero();
+        assertThat(bank.getAllAccounts()).hasSize(20);
+    }
+
+    private HttpResponse<String> post(String path, String form) throws Exception {
+        return http.send(HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return http.send(HttpRequest.newBuilder(base.resolve(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,138 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BankSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Loading a snapshot restores customers, accounts and their terms")
+    void fromSnapshot_restoresEverything() throws Exception {
+        // Arrange
+        Bank bank = new Bank();
+        Customer alice = bank.addCustomer("Alice");
+        Customer bob = bank.addCustomer("Bob");
+        SavingsAccount savings = (SavingsAccount) bank.openSavingsAccount(alice, 100.0, 0.025);
+        CheckingAccount checking = (CheckingAccount) bank.openCheckingAccount(bob, 10.0, 75.0);
+        checking.withdraw(60.0);
+        bank.newInterestRun(4).execute();
+        for (int i = 0; i < 20000; i++) { // Enough to span several blocks
+            bank.openCheckingAccount(bob, i, 0.0);
+        }
+        Path file = directory.resolve("bank.snapshot");
+
+        // Act
+        bank.writeSnapshot(file);
+        Bank restored = Bank.fromSnapshot(file);
+
+        // Assert
+        assertThat(restored.getAllCustomers()).hasSize(2);
+        assertThat(restored.getAllAccounts()).hasSize(20002);
+        assertThat(restored.findCustomer(alice.getId()).orElseThrow().getName()).isEqualTo("Alice");
+        SavingsAccount restoredSavings = (SavingsAccount) restored.findAccount(savings.getAccountNumber()).orElseThrow();
+        assertThat(restoredSavings.getBalance()).isEqualTo(102.5);
+        assertThat(restoredSavings.getInterestRate()).isEqualTo(0.025);
+        assertThat(restoredSavings.getOwner()).isEqualTo(alice);
+        assertThat(restored.newInterestRun(4).getTotalAccounts()).isEqualTo(1);
+        CheckingAccount restoredChecking = (CheckingAccount) restored.findAccount(checking.getAccountNumber()).orElseThrow();
+        assertThat(restoredChecking.getBalance()).isEqualTo(-50.0);
+        assertThat(restoredChecking.getOverdraftLimit()).isEqualTo(75.0);
+        assertThat(restored.getAccountsForCustomer(bob)).hasSize(20001);
+    }
+
+    @Test
+    @DisplayName("Recovery replays only the journal records after the snapshot")
+    void recover_withSnapshot_replaysJournalTail() throws Exception {
+        // Arrange
+        Path journalFile = directory.resolve("bank.journal");
+        Path snapshot = directory.resolve("bank.snapshot");
+        String savingsNumber;
+        String laterNumber;
+        try (Journal journal = Journal.open(journalFile)) {
+            Bank bank = Bank.recover(journal, snapshot);
+            Customer alice = bank.addCustomer("Alice");
+            Account savings = bank.openSavingsAccount(alice, 100.0, 0.01);
+            savings.deposit(10.0);
+            bank.writeSnapshot(snapshot);
+            savings.deposit(5.0);
+            Account later = bank.openCheckingAccount(bank.addCustomer("Later"), 1.0, 0.0);
+            savingsNumber = savings.getAccountNumber();
+            laterNumber = later.getAccountNumber();
+        }
+
+        // Act
+        try (Journal journal = Journal.open(journalFile)) {
+            Bank recovered = Bank.recover(journal, snapshot);
+
+            // Assert
+            assertThat(recovered.findAccount(savingsNumber).orElseThrow().getBalance()).isEqualTo(115.0);
+            assertThat(recovered.findAccount(laterNumber).orElseThrow().getBalance()).isEqualTo(1.0);
+            assertThat(recovered.getAllCustomers()).hasSize(2);
+        }
+    }
+
+    @Test
+    @DisplayName("A snapshot taken during concurrent transfers recovers to the exact final state")
+    void writeSnapshot_whileTransfersRun_recoversExactly() throws Exception {
+        // Arrange
+        Path journalFile = directory.resolve("bank.journal");
+        Path snapshot = directory.resolve("bank.snapshot");
+        Map<String, Long> expected = new HashMap<>();
+        try (Journal journal = Journal.open(journalFile)) {
+            Bank bank = Bank.recover(journal);
+            Customer customer = bank.addCustomer("Busy");
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                accounts.add(bank.openCheckingAccount(customer, 100.0, 0.0));
+            }
+            AtomicBoolean running = new AtomicBoolean(true);
+            Thread writer = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    Account from = accounts.get(random.nextInt(accounts.size()));
+                    Account to = accounts.get(random.nextInt(accounts.size()));
+                    try {
+                        if (from != to) {
+                            bank.transferMinor(from, to, 1 + random.nextInt(500));
+                        }
+                    } catch (InsufficientFundsException ignored) {
+                        // Fine, just try another pair
+                    }
+                }
+            });
+            writer.start();
+
+            // Act
+            for (int i = 0; i < 5; i++) {
+                bank.writeSnapshot(snapshot);
+            }
+            running.set(false);
+            writer.join();
+            for (Account account : accounts) {
+                expected.put(account.getAccountNumber(), account.getBalanceMinor());
+            }
+        }
+
+        // Assert
+        try (Journal journal = Journal.open(journalFile)) {
+            Bank recovered = Bank.recover(journal, snapshot);
+            for (Map.Entry<String, Long> entry : expected.entrySet()) {
+                assertThat(recovered.findAccount(entry.getKey()).orElseThrow().getBalanceMinor()).isEqualTo(entry.getValue());
+            }
+        }
+    }
+}
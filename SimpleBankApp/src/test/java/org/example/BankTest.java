@@ -4,8 +4,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -151,6 +155,19 @@ class BankTest {
                 .containsExactly(checkingBob);
     }
 
+    @Test
+    @DisplayName("Get accounts for customer without accounts returns empty list")
+    void getAccountsForCustomer_noAccounts_returnsEmptyList() {
+        // Arrange
+        bank.openCheckingAccount(customer2, 500.0, 100.0);
+
+        // Act
+        List<Account> aliceAccounts = bank.getAccountsForCustomer(customer1);
+
+        // Assert
+        assertThat(aliceAccounts).isEmpty();
+    }
+
     @Test
     @DisplayName("Get accounts for non-existent customer throws exception")
     void getAccountsForCustomer_nonExistentCustomer_throwsException() {
@@ -162,4 +179,254 @@ class BankTest {
             bank.getAccountsForCustomer(rogueCustomer);
         }).withMessage("Customer does not exist in this bank.");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Transfer moves money between accounts")
+    void transfer_validAmount_movesMoney() throws InsufficientFundsException {
+        // Arrange
+        Account savings = bank.openSavingsAccount(customer1, 100.0, 0.01);
+        Account checking = bank.openCheckingAccount(customer2, 20.0, 50.0);
+
+        // Act
+        bank.transfer(savings, checking, 40.0);
+
+        // Assert
+        assertThat(savings.getBalance()).isEqualTo(60.0);
+        assertThat(checking.getBalance()).isEqualTo(60.0);
+    }
+
+    @Test
+    @DisplayName("Transfer can use the overdraft of a checking account")
+    void transfer_fromCheckingWithinOverdraft_succeeds() throws InsufficientFundsException {
+        // Arrange
+        Account checking = bank.openCheckingAccount(customer1, 20.0, 50.0);
+        Account savings = bank.openSavingsAccount(customer2, 0.0, 0.01);
+
+        // Act
+        bank.transfer(checking, savings, 70.0);
+
+        // Assert
+        assertThat(checking.getBalance()).isEqualTo(-50.0);
+        assertThat(savings.getBalance()).isEqualTo(70.0);
+    }
+
+    @Test
+    @DisplayName("Transfer exceeding available funds leaves both accounts unchanged")
+    void transfer_insufficientFunds_throwsAndLeavesBalancesUnchanged() {
+        // Arrange
+        Account savings = bank.openSavingsAccount(customer1, 100.0, 0.01);
+        Account checking = bank.openCheckingAccount(customer2, 20.0, 50.0);
+
+        // Act & Assert
+        assertThatExceptionOfType(InsufficientFundsException.class).isThrownBy(() -> {
+            bank.transfer(savings, checking, 100.5);
+        }).withMessageContaining("Insufficient funds");
+        assertThat(savings.getBalance()).isEqualTo(100.0);
+        assertThat(checking.getBalance()).isEqualTo(20.0);
+    }
+
+    @Test
+    @DisplayName("tryTransfer moves money or declines without throwing")
+    void tryTransfer_approvedThenDeclined_reportsOutcome() {
+        // Arrange
+        Account savings = bank.openSavingsAccount(customer1, 100.0, 0.01);
+        Account checking = bank.openCheckingAccount(customer2, 20.0, 50.0);
+
+        // Act
+        DebitResult approved = bank.tryTransfer(savings, checking, 60.0);
+        DebitResult declined = bank.tryTransfer(savings, checking, 40.01);
+
+        // Assert
+        assertThat(approved).isEqualTo(DebitResult.APPROVED);
+        assertThat(declined).isEqualTo(DebitResult.insufficientFunds(4_000));
+        assertThat(savings.getBalance()).isEqualTo(40.0);
+        assertThat(checking.getBalance()).isEqualTo(80.0);
+    }
+
+    @Test
+    @DisplayName("Transfer involving an account from another bank throws exception")
+    void transfer_unknownAccount_throwsException() {
+        // Arrange
+        Account savings = bank.openSavingsAccount(customer1, 100.0, 0.01);
+        Account outsider = new CheckingAccount(customer2, 0.0, 0.0); // Never opened through the bank
+
+        // Act & Assert
+        assertThatIllegalArgumentException().isThrownBy(() -> {
+            bank.transfer(savings, outsider, 10.0);
+        }).withMessage("Account does not exist in this bank.");
+    }
+
+    @Test
+    @DisplayName("Concurrent opposite-direction transfers neither deadlock nor lose money")
+    void transfer_concurrentOppositeDirections_conservesTotal() throws InterruptedException {
+        // Arrange
+        Account a = bank.openCheckingAccount(customer1, 1000.0, 0.0);
+        Account b = bank.openCheckingAccount(customer2, 1000.0, 0.0);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int i = 0; i < 2000; i++) {
+            Account from = i % 2 == 0 ? a : b;
+            Account to = from == a ? b : a;
+            pool.execute(() -> {
+                try {
+                    bank.transfer(from, to, 1.0);
+                } catch (InsufficientFundsException ignored) {
+                    // Can't happen with these amounts, but rejections would be fine too
+                }
+            });
+        }
+        pool.shutdown();
+
+        // Assert
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(a.getBalance() + b.getBalance()).isEqualTo(2000.0);
+    }
+
+    @Test
+    @DisplayName("Operations on bank accounts publish events to the bank's sink")
+    void operations_publishEventsToSink() throws InsufficientFundsException {
+        // Arrange
+        List<String> published = new ArrayList<>();
+        Bank recordingBank = new Bank((type, subject, amount, balance) -> published.add(type + ":" + amount + ":" + balance));
+        Customer carol = recordingBank.addCustomer("Carol");
+
+        // Act
+        Account checking = recordingBank.openCheckingAccount(carol, 10.0, 0.0);
+        checking.deposit(5.0);
+        checking.withdraw(2.5);
+
+        // Assert
+        assertThat(published).containsExactly(
+                "CUSTOMER_ADDED:0:0",
+                "CHECKING_OPENED:1000:1000",
+                "DEPOSIT:500:1500",
+                "WITHDRAWAL:250:1250");
+    }
+
+    @Test
+    @DisplayName("An account's opening is published before the account can be found, for both storages")
+    void openAccount_publishesOpeningBeforeAccountIsVisible() {
+        for (AccountStorage storage : AccountStorage.values()) {
+            // Arrange: a deposit racing the opening can only start once the account can be found
+            Bank[] recordingBank = new Bank[1];
+            List<String> visibleWhenOpened = new ArrayList<>();
+            recordingBank[0] = new Bank((type, subject, amount, balance) -> {
+                if (type == EventType.SAVINGS_OPENED || type == EventType.CHECKING_OPENED) {
+                    visibleWhenOpened.add(type + ":" + recordingBank[0].findAccount(subject).isPresent());
+                }
+            }, Metrics.NO_OP, storage);
+            Customer carol = recordingBank[0].addCustomer("Carol");
+
+            // Act
+            recordingBank[0].openSavingsAccount(carol, 10.0, 0.01);
+            recordingBank[0].openCheckingAccount(carol, 10.0, 0.0);
+
+            // Assert
+            assertThat(visibleWhenOpened).as(storage.name()).containsExactly("SAVINGS_OPENED:false", "CHECKING_OPENED:false");
+        }
+    }
+
+    @Test
+    @DisplayName("Apply batch returns a result per operation without throwing")
+    void applyBatch_mixedOperations_returnsPerItemResults() {
+        // Arrange
+        Account savings = bank.openSavingsAccount(customer1, 100.0, 0.01);
+        Account checking = bank.openCheckingAccount(customer2, 0.0, 50.0);
+        List<BatchOperation> batch = List.of(
+                BatchOperation.deposit(savings.getAccountNumber(), 25.0),
+                BatchOperation.withdraw(checking.getAccountNumber(), 40.0),
+                BatchOperation.withdraw(savings.getAccountNumber(), 500.0),
+                BatchOperation.transfer(savings.getAccountNumber(), checking.getAccountNumber(), 100.0),
+                BatchOperation.deposit("0000", 10.0),
+                BatchOperation.deposit(savings.getAccountNumber(), -1.0),
+                BatchOperation.deposit(savings.getAccountNumber(), 1e300)); // Too large for a long
+
+        // Act
+        List<BatchResult> results = bank.applyBatch(batch);
+
+        // Assert
+        assertThat(results).containsExactly(
+                BatchResult.SUCCESS,
+                BatchResult.SUCCESS,
+                BatchResult.INSUFFICIENT_FUNDS,
+                BatchResult.SUCCESS,
+                BatchResult.UNKNOWN_ACCOUNT,
+                BatchResult.INVALID_OPERATION,
+                BatchResult.INVALID_OPERATION);
+        assertThat(savings.getBalance()).isEqualTo(25.0);
+        assertThat(checking.getBalance()).isEqualTo(60.0);
+    }
+
+    @Test
+    @DisplayName("Apply batch reports a credit that would overflow a balance and applies the rest")
+    void applyBatch_overflowingCredit_isInvalidAndOthersApply() {
+        // Arrange
+        Account savings = bank.openSavingsAccount(customer1, 9.0e16, 0.01);
+        Account checking = bank.openCheckingAccount(customer2, 9.0e16, 0.0);
+        List<BatchOperation> batch = List.of(
+                BatchOperation.withdraw(savings.getAccountNumber(), 1.0),
+                BatchOperation.deposit(savings.getAccountNumber(), 9.0e16),
+                BatchOperation.transfer(checking.getAccountNumber(), savings.getAccountNumber(), 9.0e16),
+                BatchOperation.deposit(checking.getAccountNumber(), 1.0));
+
+        // Act
+        List<BatchResult> results = bank.applyBatch(batch);
+
+        // Assert
+        assertThat(results).containsExactly(
+                BatchResult.SUCCESS,
+                BatchResult.INVALID_OPERATION,
+                BatchResult.INVALID_OPERATION,
+                BatchResult.SUCCESS);
+        assertThat(savings.getBalanceMinor()).isEqualTo(9_000_000_000_000_000_000L - 100);
+        assertThat(checking.getBalanceMinor()).isEqualTo(9_000_000_000_000_000_000L + 100);
+    }
+
+    @Test
+    @DisplayName("Apply batch tells accounts apart by number, however the number is written, for both storages")
+    void applyBatch_sameAccountWrittenTwoWays_isOneAccount() {
+        for (AccountStorage storage : AccountStorage.values()) {
+            // Arrange
+            Bank bank = new Bank(EventSink.NO_OP, Metrics.NO_OP, storage);
+            Customer alice = bank.addCustomer("Alice");
+            Account savings = bank.openSavingsAccount(alice, 100.0, 0.01);
+            Account checking = bank.openCheckingAccount(alice, 0.0, 0.0);
+            String number = savings.getAccountNumber();
+            List<BatchOperation> batch = List.of(
+                    BatchOperation.transfer("0" + number, number, 10.0),
+                    BatchOperation.deposit("0" + number, 5.0),
+                    BatchOperation.transfer(number, checking.getAccountNumber(), 20.0));
+
+            // Act
+            List<BatchResult> results = bank.applyBatch(batch);
+
+            // Assert
+            assertThat(results).as(storage.name()).containsExactly(
+                    BatchResult.INVALID_OPERATION,
+                    BatchResult.SUCCESS,
+                    BatchResult.SUCCESS);
+            assertThat(savings.getBalance()).as(storage.name()).isEqualTo(85.0);
+            assertThat(checking.getBalance()).as(storage.name()).isEqualTo(20.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Apply batch preserves list order across chunks")
+    void applyBatch_largeBatch_appliesInOrder() {
+        // Arrange: withdrawals only succeed if every earlier deposit was applied first
+        Account savings = bank.openSavingsAccount(customer1, 0.0, 0.01);
+        List<BatchOperation> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(BatchOperation.deposit(savings.getAccountNumber(), 1.0));
+            batch.add(BatchOperation.withdraw(savings.getAccountNumber(), 1.0));
+        }
+
+        // Act
+        List<BatchResult> results = bank.applyBatch(batch);
+
+        // Assert
+        assertThat(results).hasSize(2000).containsOnly(BatchResult.SUCCESS);
+        assertThat(savings.getBalance()).isEqualTo(0.0);
+    }
+}
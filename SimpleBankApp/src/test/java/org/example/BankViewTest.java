@@ -0,0 +1,134 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BankViewTest {
+
+    private Bank bank;
+    private Customer alice;
+
+    @BeforeEach
+    void setUp() {
+        bank = new Bank();
+        alice = bank.addCustomer("Alice");
+    }
+
+    @Test
+    @DisplayName("A view keeps showing balances as they were when it was opened")
+    void openView_laterChanges_areNotVisible() throws InsufficientFundsException {
+        // Arrange
+        Account savings = bank.openSavingsAccount(alice, 100.0, 0.01);
+        Account checking = bank.openCheckingAccount(alice, 50.0, 20.0);
+
+        try (BankView view = bank.openView()) {
+            // Act
+            savings.deposit(25.0);
+            checking.withdraw(60.0);
+            bank.transfer(savings, checking, 10.0);
+            ((SavingsAccount) savings).applyInterest();
+            Map<Account, Long> balances = new HashMap<>();
+            view.forEach(balances::put);
+
+            // Assert
+            assertThat(view.getBalance(savings)).isEqualTo(100.0);
+            assertThat(view.getBalance(checking)).isEqualTo(50.0);
+            assertThat(view.getTotalBalanceMinor()).isEqualTo(15_000);
+            assertThat(balances).containsOnly(entry(savings, 10_000L), entry(checking, 5_000L));
+        }
+        assertThat(savings.getBalance()).isEqualTo(116.15);
+        assertThat(checking.getBalance()).isEqualTo(0.0);
+    }
+
+    @Test
+    @DisplayName("Accounts opened after the view was taken are left out")
+    void openView_accountOpenedLater_isExcluded() {
+        // Arrange
+        Account before = bank.openCheckingAccount(alice, 10.0, 0.0);
+
+        try (BankView view = bank.openView()) {
+            // Act
+            Account after = bank.openCheckingAccount(alice, 20.0, 0.0);
+            List<Account> seen = new ArrayList<>();
+            view.forEach((account, balance) -> seen.add(account));
+
+            // Assert
+            assertThat(seen).containsExactly(before);
+            assertThatIllegalArgumentException().isThrownBy(() -> view.getBalanceMinor(after))
+                    .withMessage("Account was opened after the view was taken.");
+        }
+    }
+
+    @Test
+    @DisplayName("A closed view can no longer be read")
+    void close_thenRead_throws() {
+        // Arrange
+        Account account = bank.openCheckingAccount(alice, 10.0, 0.0);
+        BankView view = bank.openView();
+
+        // Act
+        view.close();
+        view.close(); // Closing twice is harmless
+
+        // Assert
+        assertThatIllegalStateException().isThrownBy(() -> view.getBalanceMinor(account)).withMessage("View is closed.");
+    }
+
+    @Test
+    @DisplayName("Every view taken during concurrent transfers sees the money conserved")
+    void openView_duringConcurrentTransfers_seesConsistentTotal() throws InterruptedException {
+        for (AccountStorage storage : AccountStorage.values()) {
+            assertViewsConserveMoney(storage);
+        }
+    }
+
+    private static void assertViewsConserveMoney(AccountStorage storage) throws InterruptedException {
+        // Arrange
+        Bank concurrent = new Bank(EventSink.NO_OP, Metrics.NO_OP, storage);
+        Customer owner = concurrent.addCustomer("Bob");
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            accounts.add(concurrent.openCheckingAccount(owner, 100.0, 0.0));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    Account from = accounts.get(random.nextInt(accounts.size()));
+                    Account to = accounts.get(random.nextInt(accounts.size()));
+                    if (!from.equals(to)) {
+                        concurrent.tryTransferMinor(from, to, 1 + random.nextInt(1_000));
+                    }
+                }
+            });
+        }
+
+        // Act & Assert
+        try {
+            for (int i = 0; i < 200; i++) {
+                try (BankView view = concurrent.openView()) {
+                    assertThat(view.getTotalBalanceMinor()).isEqualTo(100 * 10_000L);
+                }
+            }
+        } finally {
+            running.set(false);
+            pool.shutdown();
+            assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BulkImportTest {
+
+    @TempDir
+    Path directory;
+
+    private Bank bank;
+    private List<String> badRows;
+
+    @BeforeEach
+    void setUp() {
+        bank = new Bank();
+        badRows = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @Test
+    @DisplayName("Valid rows are imported and bad ones reported with their line and reason")
+    void import_mixedRows_importsValidAndReportsBad() throws Exception {
+        // Arrange
+        Path customers = write("customers.csv",
+                "id,name",
+                "c1,Alice",
+                "c2,\"Smith, \"\"Bob\"\"\"",
+                "",
+                "c1,Alice Again",
+                "c3,",
+                "c4,Too,Many");
+        Path accounts = write("accounts.csv",
+                "customer_id,type,balance,terms",
+                "c1,savings,100.50,0.02",
+                "c2,CHECKING,10,50",
+                "c9,savings,1,0.01",
+                "c1,brokerage,1,0",
+                "c2,checking,-5,0",
+                "c2,savings,ten,0.01");
+        BulkImport bulkImport = bank.newBulkImport()
+                .onBadRow((file, lineNumber, line, reason) -> badRows.add(file.getFileName() + ":" + lineNumber + " " + reason));
+
+        // Act
+        bulkImport.importCustomers(customers);
+        bulkImport.importAccounts(accounts);
+
+        // Assert
+        Customer alice = bulkImport.getCustomer("c1").orElseThrow();
+        Customer bob = bulkImport.getCustomer("c2").orElseThrow();
+        assertThat(bob.getName()).isEqualTo("Smith, \"Bob\"");
+        assertThat(bank.getAllCustomers()).containsExactlyInAnyOrder(alice, bob);
+        assertThat(bank.getAccountsForCustomer(alice)).singleElement()
+                .satisfies(account -> assertThat(account.getBalance()).isEqualTo(100.5));
+        assertThat(bank.getAccountsForCustomer(bob)).singleElement()
+                .satisfies(account -> assertThat(((CheckingAccount) account).getOverdraftLimit()).isEqualTo(50.0));
+        assertThat(badRows).containsExactlyInAnyOrder(
+                "customers.csv:5 Duplicate customer id c1.",
+                "customers.csv:6 Customer name cannot be empty.",
+                "customers.csv:7 Expected 2 fields: id,name.",
+                "accounts.csv:4 Unknown customer id c9.",
+                "accounts.csv:5 Account type must be savings or checking.",
+                "accounts.csv:6 Initial deposit cannot be negative.",
+                "accounts.csv:7 Balance is not a number.");
+        assertThat(bulkImport.getImportedCustomers()).isEqualTo(2);
+        assertThat(bulkImport.getImportedAccounts()).isEqualTo(2);
+        assertThat(bulkImport.getRejectedRows()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Files spanning many chunks load completely on a pool and survive recovery")
+    void import_largeJournaledFiles_loadCompletely() throws Exception {
+        // Arrange
+        int rows = 20_000;
+        List<String> customerLines = new ArrayList<>(List.of("id,name"));
+        List<String> accountLines = new ArrayList<>(List.of("customer_id,type,balance,terms"));
+        for (int i = 0; i < rows; i++) {
+            customerLines.add("legacy-" + i + ",Customer " + i);
+            accountLines.add("legacy-" + i + (i % 2 == 0 ? ",savings,1.00,0.01" : ",checking,2.00,10"));
+        }
+        Path customers = write("customers.csv", customerLines.toArray(new String[0]));
+        Path accounts = write("accounts.csv", accountLines.toArray(new String[0]));
+        Path journalFile = directory.resolve("bank.journal");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        // Act
+        try (Journal journal = Journal.open(journalFile)) {
+            Bank journaled = Bank.recover(journal);
+            BulkImport bulkImport = journaled.newBulkImport();
+            bulkImport.importCustomers(customers, pool);
+            bulkImport.importAccounts(accounts, pool);
+
+            // Assert
+            assertThat(bulkImport.getImportedCustomers()).isEqualTo(rows);
+            assertThat(bulkImport.getImportedAccounts()).isEqualTo(rows);
+            assertThat(bulkImport.getRejectedRows()).isZero();
+        } finally {
+            pool.shutdown();
+        }
+        try (Journal journal = Journal.open(journalFile)) {
+            Bank recovered = Bank.recover(journal);
+            assertThat(recovered.getAllCustomers()).hasSize(rows);
+            assertThat(recovered.getAllAccounts()).hasSize(rows);
+            assertThat(recovered.getAggregates().getTotalDepositsMinor()).isEqualTo(rows / 2 * 100L + rows / 2 * 200L);
+        }
+    }
+
+    @Test
+    @DisplayName("A file without the expected header is refused before anything is imported")
+    void importCustomers_wrongHeader_throws() throws Exception {
+        // Arrange
+        Path customers = write("customers.csv", "name,id", "Alice,c1");
+
+        // Act & Assert
+        assertThatIllegalArgumentException().isThrownBy(() -> bank.newBulkImport().importCustomers(customers))
+                .withMessageEndingWith("must start with the header id,name.");
+        assertThat(bank.getAllCustomers()).isEmpty();
+    }
+
+    private Path write(String name, String... lines) throws Exception {
+        return Files.write(directory.resolve(name), List.of(lines));
+    }
+}
@@ -4,6 +4,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.*;
 
 class CheckingAccountTest {
@@ -69,6 +77,44 @@ class CheckingAccountTest {
         assertThat(account.getBalance()).isEqualTo(100.0);
     }
 
+    @Test
+    @DisplayName("Declined withdrawal exception carries the amounts and formats its message on demand")
+    void withdraw_exceedingOverdraftLimit_exceptionHasAmountsAndNoStackTrace() {
+        // Act
+        InsufficientFundsException e = catchThrowableOfType(() -> account.withdraw(200.0), InsufficientFundsException.class);
+
+        // Assert
+        assertThat(e.getAvailableFundsMinor()).isEqualTo(15_000);
+        assertThat(e.getRequestedMinor()).isEqualTo(20_000);
+        assertThat(e.getStackTrace()).isEmpty();
+        assertThat(e.getMessage()).isEqualTo("Insufficient funds including overdraft in Checking Account "
+                + account.getAccountNumber() + ". Available (incl. overdraft): 150.0, Requested: 200.0");
+    }
+
+    @Test
+    @DisplayName("tryWithdraw within overdraft limit is approved")
+    void tryWithdraw_withinOverdraftLimit_isApproved() {
+        // Act
+        DebitResult result = account.tryWithdraw(130.0);
+
+        // Assert
+        assertThat(result).isEqualTo(DebitResult.APPROVED);
+        assertThat(account.getBalance()).isEqualTo(-30.0);
+        assertThat(account.getAvailableFunds()).isEqualTo(20.0);
+    }
+
+    @Test
+    @DisplayName("tryWithdraw exceeding overdraft limit is declined without throwing")
+    void tryWithdraw_exceedingOverdraftLimit_isDeclined() {
+        // Act
+        DebitResult result = account.tryWithdraw(150.1);
+
+        // Assert
+        assertThat(result).isEqualTo(DebitResult.insufficientFunds(15_000)); // Overdraft included
+        assertThat(account.getBalance()).isEqualTo(100.0);
+        assertThat(account.getAvailableFunds()).isEqualTo(150.0);
+    }
+
     @Test
     @DisplayName("Account creation with negative overdraft throws exception")
     void createAccount_negativeOverdraft_throwsIllegalArgumentException() {
@@ -76,4 +122,38 @@ class CheckingAccountTest {
             new CheckingAccount(testCustomer, 100.0, -50.0);
         }).withMessage("Overdraft limit cannot be negative.");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Concurrent withdrawals never exceed the overdraft limit")
+    void withdraw_concurrently_neverExceedsOverdraftLimit() throws Exception {
+        // Arrange: 150 available in total, 8 threads each try to take 1.0 fifty times
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tasks.add(() -> {
+                int succeeded = 0;
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        account.withdraw(1.0);
+                        succeeded++;
+                    } catch (InsufficientFundsException expected) {
+                        // Declined once the limit is reached
+                    }
+                }
+                return succeeded;
+            });
+        }
+
+        // Act
+        int totalSucceeded = 0;
+        for (Future<Integer> result : pool.invokeAll(tasks)) {
+            totalSucceeded += result.get();
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Assert
+        assertThat(totalSucceeded).isEqualTo(150);
+        assertThat(account.getBalance()).isEqualTo(-50.0);
+    }
+}
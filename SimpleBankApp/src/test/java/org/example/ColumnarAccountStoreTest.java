@@ -0,0 +1,187 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ColumnarAccountStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private Bank bank;
+    private Customer alice;
+    private Customer bob;
+
+    @BeforeEach
+    void setUp() {
+        bank = new Bank(EventSink.NO_OP, Metrics.NO_OP, AccountStorage.COLUMNAR);
+        alice = bank.addCustomer("Alice");
+        bob = bank.addCustomer("Bob");
+    }
+
+    @Test
+    @DisplayName("Views of the same account share its balance and are equal")
+    void findAccount_returnsViewSharingState() throws InsufficientFundsException {
+        // Arrange
+        Account opened = bank.openSavingsAccount(alice, 100.0, 0.01);
+
+        // Act
+        Account found = bank.findAccount(opened.getAccountNumber()).orElseThrow();
+        found.deposit(50.0);
+        opened.withdraw(30.0);
+
+        // Assert
+        assertThat(found).isInstanceOf(SavingsAccount.class).isEqualTo(opened).isNotSameAs(opened);
+        assertThat(opened.getBalance()).isEqualTo(120.0);
+        assertThat(found.getBalance()).isEqualTo(120.0);
+        assertThat(found.getOwner()).isSameAs(alice);
+        assertThat(((SavingsAccount) found).getInterestRate()).isEqualTo(0.01);
+    }
+
+    @Test
+    @DisplayName("Lookups work across index growth and many pages")
+    void findAccount_manyAccounts_findsEveryOne() {
+        // Arrange: more than two pages of columns, so the index also grows many times
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 2 * AccountColumns.PAGE_SIZE + 100; i++) {
+            numbers.add(bank.openCheckingAccount(i % 2 == 0 ? alice : bob, i, 10.0).getAccountNumber());
+        }
+
+        // Act & Assert
+        for (int i = 0; i < numbers.size(); i += 997) {
+            Account account = bank.findAccount(numbers.get(i)).orElseThrow();
+            assertThat(account.getBalanceMinor()).isEqualTo(i * 100L);
+            assertThat(((CheckingAccount) account).getOverdraftLimit()).isEqualTo(10.0);
+        }
+        assertThat(bank.findAccount("999999999")).isEmpty();
+        assertThat(bank.findAccount("not-a-number")).isEmpty();
+        assertThat(bank.getAllAccounts()).hasSize(numbers.size());
+    }
+
+    @Test
+    @DisplayName("Accounts for a customer come back in opening order")
+    void getAccountsForCustomer_returnsOwnAccountsInOrder() {
+        // Arrange
+        Account first = bank.openSavingsAccount(alice, 1.0, 0.01);
+        bank.openCheckingAccount(bob, 2.0, 0.0);
+        Account second = bank.openCheckingAccount(alice, 3.0, 0.0);
+
+        // Act
+        List<Account> accounts = bank.getAccountsForCustomer(alice);
+
+        // Assert
+        assertThat(accounts).containsExactly(first, second);
+    }
+
+    @Test
+    @DisplayName("Accounts sharing a lock stripe can transfer to each other")
+    void transfer_betweenAccountsOnSameStripe_succeeds() throws InsufficientFundsException {
+        // Arrange: slots 0 and 4096 map to the same stripe
+        Account from = bank.openCheckingAccount(alice, 100.0, 0.0);
+        Account to = null;
+        for (int i = 1; i <= 4096; i++) {
+            to = bank.openCheckingAccount(bob, 0.0, 0.0);
+        }
+
+        // Act
+        bank.transfer(from, to, 40.0);
+
+        // Assert
+        assertThat(from.getBalance()).isEqualTo(60.0);
+        assertThat(to.getBalance()).isEqualTo(40.0);
+    }
+
+    @Test
+    @DisplayName("Concurrent random transfers neither deadlock nor lose money")
+    void transfer_concurrentRandomPairs_conservesTotal() throws InterruptedException {
+        // Arrange: more accounts than stripes, so pairs order by stripe and sometimes share one
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            accounts.add(bank.openCheckingAccount(alice, 100.0, 0.0));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int i = 0; i < 20000; i++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Account from = accounts.get(random.nextInt(accounts.size()));
+                Account to = accounts.get(random.nextInt(accounts.size()));
+                if (!from.equals(to)) {
+                    bank.tryTransfer(from, to, 1.0);
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Assert
+        long total = 0;
+        for (Account account : bank.getAllAccounts()) {
+            total += account.getBalanceMinor();
+        }
+        assertThat(total).isEqualTo(5000 * 10_000L);
+    }
+
+    @Test
+    @DisplayName("Interest run posts to every savings view and is recorded in the columns")
+    void newInterestRun_postsInterestAndSkipsRepeat() throws InterruptedException {
+        // Arrange
+        Account savings = bank.openSavingsAccount(alice, 100.0, 0.01);
+        bank.openCheckingAccount(alice, 100.0, 0.0);
+
+        // Act
+        bank.newInterestRun(1).execute();
+        InterestRun repeat = bank.newInterestRun(1);
+        repeat.execute();
+
+        // Assert
+        assertThat(repeat.getTotalAccounts()).isEqualTo(1);
+        assertThat(repeat.getPostedAccounts()).isZero();
+        assertThat(savings.getBalance()).isEqualTo(101.0);
+    }
+
+    @Test
+    @DisplayName("Snapshots and journals restore into columnar storage")
+    void recover_intoColumnarStorage_restoresState() throws Exception {
+        // Arrange
+        Path snapshot = directory.resolve("bank.snapshot");
+        Path journalFile = directory.resolve("bank.journal");
+        String savingsNumber;
+        String checkingNumber;
+        try (Journal journal = Journal.open(journalFile)) {
+            Bank original = Bank.recover(journal, null, EventSink.NO_OP, Metrics.NO_OP, AccountStorage.COLUMNAR);
+            Customer carol = original.addCustomer("Carol");
+            Account savings = original.openSavingsAccount(carol, 100.0, 0.02);
+            Account checking = original.openCheckingAccount(carol, 10.0, 50.0);
+            savings.deposit(25.0);
+            original.writeSnapshot(snapshot);
+            original.transfer(checking, savings, 40.0); // Only in the journal
+            savingsNumber = savings.getAccountNumber();
+            checkingNumber = checking.getAccountNumber();
+        }
+
+        // Act
+        try (Journal journal = Journal.open(journalFile)) {
+            Bank recovered = Bank.recover(journal, snapshot, EventSink.NO_OP, Metrics.NO_OP, AccountStorage.COLUMNAR);
+
+            // Assert
+            assertThat(recovered.findAccount(savingsNumber).orElseThrow().getBalance()).isEqualTo(165.0);
+            assertThat(recovered.findAccount(checkingNumber).orElseThrow().getBalance()).isEqualTo(-30.0);
+            assertThat(Bank.fromSnapshot(snapshot, AccountStorage.COLUMNAR).findAccount(savingsNumber).orElseThrow().getBalance())
+                    .isEqualTo(125.0);
+        }
+    }
+}
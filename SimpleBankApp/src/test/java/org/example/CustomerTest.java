@@ -3,6 +3,8 @@ package org.example;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.*; // Import AssertJ assertions
 
 class CustomerTest {
@@ -72,4 +74,49 @@ class CustomerTest {
             customer.setName(null);
         }).withMessage("Customer name cannot be empty.");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Generated ids are distinct version 4 UUIDs")
+    void createCustomer_generatesDistinctUuidIds() {
+        // Act
+        Customer first = new Customer("Alice");
+        Customer second = new Customer("Bob");
+
+        // Assert
+        UUID id = UUID.fromString(first.getId());
+        assertThat(id.version()).isEqualTo(4);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("A restored customer equals the original and keeps its id")
+    void restoredCustomer_withSameId_isEqual() {
+        // Arrange
+        Customer original = new Customer("Alice");
+
+        // Act
+        Customer restored = new Customer(original.getId(), "Alice");
+
+        // Assert
+        assertThat(restored).isEqualTo(original).hasSameHashCodeAs(original);
+        assertThat(restored.getId()).isEqualTo(original.getId());
+        assertThat(new Customer("Bob")).isNotEqualTo(original); // Restoring didn't rewind the sequence
+    }
+
+    @Test
+    @DisplayName("Looking up an id never moves the id sequence, however large the id")
+    void key_withLargeSequenceNumber_reservesNothing() {
+        // Arrange
+        Customer existing = new Customer("Alice");
+        String probe = new UUID(existing.getIdHigh(), 0x8000000000000000L | (1L << 61)).toString(); // Same process prefix
+
+        // Act
+        Customer key = Customer.key(probe);
+
+        // Assert
+        assertThat(key.getId()).isEqualTo(probe);
+        assertThat(new Customer("Bob").getIdLow() & ~0xC000000000000000L).isLessThan(1L << 61);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IdAllocatorTest {
+
+    @Test
+    @DisplayName("Ids allocated from many threads are unique")
+    void next_concurrentThreads_neverRepeats() throws InterruptedException {
+        // Arrange
+        IdAllocator allocator = new IdAllocator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int task = 0; task < 8; task++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(allocator.next());
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Assert
+        assertThat(ids).hasSize(80_000);
+    }
+
+    @Test
+    @DisplayName("A thread's ids follow on from each other within its block")
+    void next_sameThread_isSequential() {
+        // Arrange
+        IdAllocator allocator = new IdAllocator(1000);
+
+        // Act
+        long first = allocator.next();
+        long second = allocator.next();
+
+        // Assert
+        assertThat(first).isEqualTo(1000);
+        assertThat(second).isEqualTo(1001);
+    }
+
+    @Test
+    @DisplayName("Reserved ids are never handed out, even from a block taken earlier")
+    void reserve_idInsideCurrentBlock_isSkipped() {
+        // Arrange
+        IdAllocator allocator = new IdAllocator(1000);
+        allocator.next(); // This thread now holds 1000..2023
+
+        // Act
+        allocator.reserve(1500);
+        long next = allocator.next();
+
+        // Assert
+        assertThat(next).isGreaterThan(1500);
+    }
+}
@@ -0,0 +1,175 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    @Test
+    @DisplayName("Retried keyed requests return the first outcome without posting again")
+    void keyedOperations_retried_applyOnce() {
+        // Arrange
+        Bank bank = new Bank();
+        Customer alice = bank.addCustomer("Alice");
+        Account savings = bank.openSavingsAccount(alice, 100.0, 0.01);
+        Account checking = bank.openCheckingAccount(alice, 0.0, 0.0);
+
+        // Act
+        bank.deposit("dep-1", savings, 50.0);
+        bank.deposit("dep-1", savings, 50.0);
+        DebitResult transferred = bank.tryTransfer("tr-1", savings, checking, 120.0);
+        DebitResult transferRetried = bank.tryTransfer("tr-1", savings, checking, 120.0);
+        DebitResult declined = bank.tryWithdraw("wd-1", checking, 500.0);
+        checking.deposit(1000.0);
+        DebitResult declineRetried = bank.tryWithdraw("wd-1", checking, 500.0);
+
+        // Assert
+        assertThat(savings.getBalance()).isEqualTo(30.0);
+        assertThat(checking.getBalance()).isEqualTo(1120.0);
+        assertThat(transferred).isEqualTo(DebitResult.APPROVED);
+        assertThat(transferRetried).isEqualTo(DebitResult.APPROVED);
+        assertThat(declined).isEqualTo(DebitResult.insufficientFunds(12_000));
+        assertThat(declineRetried).isEqualTo(declined); // The original outcome, not a new attempt
+        assertThatIllegalArgumentException().isThrownBy(() -> bank.deposit("dep-1", savings, 75.0))
+                .withMessage("Idempotency key dep-1 was already used for a different request.");
+        assertThatIllegalArgumentException().isThrownBy(() -> bank.deposit("dep-2", savings, -1.0));
+        bank.deposit("dep-2", savings, 1.0); // A failed request doesn't use up its key
+        assertThat(savings.getBalance()).isEqualTo(31.0);
+    }
+
+    @Test
+    @DisplayName("Keys are forgotten after their time to live, and the oldest go first when the cache is full")
+    void execute_expiredOrOverflowing_evictsOldest() {
+        // Arrange
+        AtomicLong now = new AtomicLong();
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofSeconds(10), 3, now::get);
+        AtomicInteger runs = new AtomicInteger();
+
+        // Act
+        for (String key : new String[] {"a", "b", "c", "d"}) {
+            cache.execute(key, Operation.DEPOSIT, 1, 0, 100, () -> approve(runs));
+        }
+        cache.execute("b", Operation.DEPOSIT, 1, 0, 100, () -> approve(runs));
+        int runsBeforeExpiry = runs.get();
+        cache.execute("a", Operation.DEPOSIT, 1, 0, 100, () -> approve(runs)); // Evicted for room, so runs again
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        cache.execute("d", Operation.DEPOSIT, 1, 0, 100, () -> approve(runs)); // Expired, so runs again
+
+        // Assert
+        assertThat(runsBeforeExpiry).isEqualTo(4);
+        assertThat(runs.get()).isEqualTo(6);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A retry arriving while the first attempt runs waits for its outcome")
+    void execute_concurrentDuplicate_waitsForFirst() throws Exception {
+        // Arrange
+        IdempotencyCache cache = new IdempotencyCache();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<DebitResult> first = pool.submit(() -> cache.execute("k", Operation.WITHDRAWAL, 1, 0, 100, () -> {
+                started.countDown();
+                awaitQuietly(release);
+                runs.incrementAndGet();
+                return DebitResult.insufficientFunds(0);
+            }));
+            started.await();
+            Future<DebitResult> retry = pool.submit(() -> cache.execute("k", Operation.WITHDRAWAL, 1, 0, 100, () -> approve(runs)));
+            Thread.sleep(50);
+            boolean retryDoneEarly = retry.isDone();
+            release.countDown();
+
+            // Assert
+            assertThat(retryDoneEarly).isFalse();
+            assertThat(first.get()).isEqualTo(DebitResult.insufficientFunds(0));
+            assertThat(retry.get()).isEqualTo(DebitResult.insufficientFunds(0));
+            assertThat(runs.get()).isEqualTo(1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("A failure after the checks is replayed to retries; only a refused request gives its key back")
+    void execute_failedRequest_replaysFailureUnlessRefused() {
+        // Arrange
+        IdempotencyCache cache = new IdempotencyCache();
+        AtomicInteger runs = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("Journal write failed.");
+
+        // Act
+        Throwable first = catchThrowable(() -> cache.execute("k", Operation.DEPOSIT, 1, 0, 100, () -> {
+            runs.incrementAndGet();
+            throw failure; // E.g. the balance moved, then the journal failed
+        }));
+        Throwable retried = catchThrowable(() -> cache.execute("k", Operation.DEPOSIT, 1, 0, 100, () -> approve(runs)));
+        Throwable refused = catchThrowable(() -> cache.execute("r", Operation.DEPOSIT, 1, 0, 100, () -> {
+            runs.incrementAndGet();
+            throw new IllegalArgumentException("Deposit amount must be positive.");
+        }));
+        DebitResult afterRefusal = cache.execute("r", Operation.DEPOSIT, 1, 0, 100, () -> approve(runs));
+
+        // Assert
+        assertThat(first).isSameAs(failure);
+        assertThat(retried).isSameAs(failure);
+        assertThat(refused).isInstanceOf(IllegalArgumentException.class);
+        assertThat(afterRefusal).isEqualTo(DebitResult.APPROVED);
+        assertThat(runs.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("An Error thrown by a request is replayed to retries instead of leaving them waiting")
+    void execute_requestThrowsError_retriesGetTheError() throws Exception {
+        // Arrange
+        IdempotencyCache cache = new IdempotencyCache();
+        AtomicInteger runs = new AtomicInteger();
+        AssertionError failure = new AssertionError("Request bug");
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+
+        try {
+            // Act
+            Throwable first = catchThrowable(() -> cache.execute("k", Operation.DEPOSIT, 1, 0, 100, () -> {
+                runs.incrementAndGet();
+                throw failure;
+            }));
+            Future<DebitResult> retry = pool.submit(() -> cache.execute("k", Operation.DEPOSIT, 1, 0, 100, () -> approve(runs)));
+
+            // Assert
+            assertThat(first).isSameAs(failure);
+            assertThatThrownBy(() -> retry.get(10, TimeUnit.SECONDS)).hasCause(failure); // Would time out if the outcome never completed
+            assertThat(runs.get()).isEqualTo(1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static DebitResult approve(AtomicInteger runs) {
+        runs.incrementAndGet();
+        return DebitResult.APPROVED;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class InterestRunTest {
+
+    private Bank bank;
+    private List<Account> savings;
+    private Account checking;
+
+    @BeforeEach
+    void setUp() {
+        bank = new Bank();
+        Customer customer = bank.addCustomer("Saver");
+        savings = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            savings.add(bank.openSavingsAccount(customer, 100.0, 0.01));
+        }
+        checking = bank.openCheckingAccount(customer, 100.0, 0.0);
+    }
+
+    @Test
+    @DisplayName("Interest run posts interest to every savings account once")
+    void execute_postsInterestToAllSavingsAccounts() throws InterruptedException {
+        // Arrange
+        InterestRun run = bank.newInterestRun(1);
+        AtomicLong lastProgress = new AtomicLong();
+        run.onProgress((processed, total) -> lastProgress.accumulateAndGet(processed, Math::max));
+
+        // Act
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            run.execute(pool);
+        }
+
+        // Assert
+        assertThat(run.isComplete()).isTrue();
+        assertThat(run.getPostedAccounts()).isEqualTo(5000);
+        assertThat(run.getInterestPostedMinor()).isEqualTo(5000 * 100L);
+        assertThat(lastProgress.get()).isEqualTo(5000);
+        assertThat(savings).allSatisfy(account -> assertThat(account.getBalance()).isEqualTo(101.0));
+        assertThat(checking.getBalance()).isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("Re-running the same run id posts nothing twice")
+    void execute_sameRunIdAgain_skipsPostedAccounts() throws InterruptedException {
+        // Arrange
+        bank.newInterestRun(1).execute();
+
+        // Act
+        InterestRun repeat = bank.newInterestRun(1);
+        repeat.execute();
+
+        // Assert
+        assertThat(repeat.isComplete()).isTrue();
+        assertThat(repeat.getPostedAccounts()).isZero();
+        assertThat(savings).allSatisfy(account -> assertThat(account.getBalance()).isEqualTo(101.0));
+    }
+
+    @Test
+    @DisplayName("A cancelled run can be resumed with the same run id")
+    void execute_afterCancel_resumesWhereItStopped() throws InterruptedException {
+        // Arrange: cancel after the first chunk has been posted
+        InterestRun interrupted = bank.newInterestRun(7);
+        interrupted.onProgress((processed, total) -> interrupted.cancel());
+        try (ForkJoinPool pool = new ForkJoinPool(1)) {
+            interrupted.execute(pool);
+        }
+
+        // Act
+        InterestRun resumed = bank.newInterestRun(7);
+        resumed.execute();
+
+        // Assert
+        assertThat(interrupted.getPostedAccounts()).isBetween(1L, 4999L);
+        assertThat(interrupted.getPostedAccounts() + resumed.getPostedAccounts()).isEqualTo(5000);
+        assertThat(savings).allSatisfy(account -> assertThat(account.getBalance()).isEqualTo(101.0));
+    }
+}
@@ -0,0 +1,198 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Recovering from the journal restores customers, accounts and balances")
+    void recover_afterRestart_restoresState() throws Exception {
+        // Arrange
+        Path file = directory.resolve("bank.journal");
+        String aliceId;
+        String savingsNumber;
+        String checkingNumber;
+        try (Journal journal = Journal.open(file)) {
+            Bank bank = Bank.recover(journal);
+            Customer alice = bank.addCustomer("Alice");
+            Account savings = bank.openSavingsAccount(alice, 100.0, 0.01);
+            Account checking = bank.openCheckingAccount(alice, 10.0, 50.0);
+            savings.deposit(50.0);
+            checking.withdraw(40.0);
+            bank.transfer(savings, checking, 25.0);
+            bank.newInterestRun(1).execute();
+            aliceId = alice.getId();
+            savingsNumber = savings.getAccountNumber();
+            checkingNumber = checking.getAccountNumber();
+        }
+
+        // Act
+        try (Journal journal = Journal.open(file)) {
+            Bank recovered = Bank.recover(journal);
+
+            // Assert
+            Customer alice = recovered.findCustomer(aliceId).orElseThrow();
+            assertThat(alice.getName()).isEqualTo("Alice");
+            assertThat(recovered.getAccountsForCustomer(alice)).hasSize(2);
+            SavingsAccount savings = (SavingsAccount) recovered.findAccount(savingsNumber).orElseThrow();
+            CheckingAccount checking = (CheckingAccount) recovered.findAccount(checkingNumber).orElseThrow();
+            assertThat(savings.getBalance()).isEqualTo(126.25); // (100 + 50 - 25) plus 1% interest
+            assertThat(savings.getInterestRate()).isEqualTo(0.01);
+            assertThat(checking.getBalance()).isEqualTo(-5.0);
+            assertThat(checking.getOverdraftLimit()).isEqualTo(50.0);
+            assertThat(recovered.newInterestRun(1).getTotalAccounts()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("A run already in the journal is not posted again after recovery")
+    void recover_thenSameInterestRun_skipsAccounts() throws Exception {
+        // Arrange
+        Path file = directory.resolve("bank.journal");
+        try (Journal journal = Journal.open(file)) {
+            Bank bank = Bank.recover(journal);
+            bank.openSavingsAccount(bank.addCustomer("Saver"), 100.0, 0.01);
+            bank.newInterestRun(3).execute();
+        }
+
+        // Act
+        try (Journal journal = Journal.open(file)) {
+            InterestRun rerun = Bank.recover(journal).newInterestRun(3);
+            rerun.execute();
+
+            // Assert
+            assertThat(rerun.getPostedAccounts()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("A torn record at the end of the journal is discarded")
+    void recover_tornTail_keepsCompleteRecords() throws Exception {
+        // Arrange
+        Path file = directory.resolve("bank.journal");
+        String accountNumber;
+        try (Journal journal = Journal.open(file)) {
+            Bank bank = Bank.recover(journal);
+            Account checking = bank.openCheckingAccount(bank.addCustomer("Bob"), 10.0, 0.0);
+            checking.deposit(5.0);
+            accountNumber = checking.getAccountNumber();
+        }
+        long completeSize = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(completeSize - 3); // Simulate a crash half-way through the last write
+        }
+
+        // Act
+        try (Journal journal = Journal.open(file)) {
+            Bank recovered = Bank.recover(journal);
+            Account checking = recovered.findAccount(accountNumber).orElseThrow();
+            checking.deposit(1.0); // Appends after the last complete record
+
+            // Assert
+            assertThat(checking.getBalance()).isEqualTo(11.0);
+        }
+        try (Journal journal = Journal.open(file)) {
+            assertThat(Bank.recover(journal).findAccount(accountNumber).orElseThrow().getBalance()).isEqualTo(11.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent operations share fsyncs through group commit")
+    void concurrentDeposits_shareSyncs() throws IOException, InterruptedException {
+        // Arrange
+        Path file = directory.resolve("bank.journal");
+        try (Journal journal = Journal.open(file)) {
+            Bank bank = Bank.recover(journal);
+            Customer customer = bank.addCustomer("Busy");
+            List<Account> accounts = List.of(
+                    bank.openCheckingAccount(customer, 0.0, 0.0),
+                    bank.openCheckingAccount(customer, 0.0, 0.0));
+            long syncsBefore = journal.getSyncCount();
+            ExecutorService pool = Executors.newFixedThreadPool(16);
+
+            // Act
+            for (int i = 0; i < 2000; i++) {
+                Account account = accounts.get(i % 2);
+                pool.execute(() -> account.deposit(1.0));
+            }
+            pool.shutdown();
+            assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+            // Assert
+            assertThat(journal.getSyncCount() - syncsBefore).isLessThan(2000);
+            assertThat(journal.getDurablePosition()).isEqualTo(Files.size(file));
+        }
+    }
+
+    @Test
+    @DisplayName("An interest run waits for the journal once per chunk, not once per account")
+    void interestRun_waitsOncePerChunk() throws Exception {
+        // Arrange
+        Path file = directory.resolve("bank.journal");
+        try (Journal journal = Journal.open(file)) {
+            Bank bank = Bank.recover(journal);
+            Customer saver = bank.addCustomer("Saver");
+            List<Account> unopened = new ArrayList<>();
+            for (int i = 0; i < 3_000; i++) {
+                unopened.add(new SavingsAccount(saver, 100.0, 0.01));
+            }
+            bank.openAccounts(unopened);
+            long syncsBefore = journal.getSyncCount();
+
+            // Act
+            try (ForkJoinPool pool = new ForkJoinPool(1)) { // One worker, so no two chunks can share a sync
+                bank.newInterestRun(1).execute(pool);
+            }
+
+            // Assert
+            assertThat(journal.getSyncCount() - syncsBefore).isLessThanOrEqualTo(4); // 3,000 accounts in chunks of at most 1,024
+            assertThat(journal.getDurablePosition()).isEqualTo(Files.size(file));
+        }
+    }
+
+    @Test
+    @DisplayName("Once the journal has failed, changes throw before any balance moves")
+    void operations_afterJournalFailure_changeNothing() throws Exception {
+        // Arrange
+        Path file = directory.resolve("bank.journal");
+        try (Journal journal = Journal.open(file)) {
+            Bank bank = Bank.recover(journal);
+            Customer customer = bank.addCustomer("Unlucky");
+            Account savings = bank.openSavingsAccount(customer, 100.0, 0.01);
+            Account checking = bank.openCheckingAccount(customer, 100.0, 0.0);
+            journal.close(); // The next sync fails, which marks the journal unusable
+            assertThatThrownBy(() -> savings.deposit(1.0)).isInstanceOf(UncheckedIOException.class);
+            long savingsBalance = savings.getBalanceMinor();
+
+            // Act + Assert
+            assertThatThrownBy(() -> savings.deposit(1.0)).isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> checking.withdraw(1.0)).isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> bank.tryTransfer(checking, savings, 1.0)).isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> ((SavingsAccount) savings).applyInterest()).isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> bank.applyBatch(List.of(BatchOperation.deposit(checking.getAccountNumber(), 1.0))))
+                    .isInstanceOf(UncheckedIOException.class);
+            assertThat(savings.getBalanceMinor()).isEqualTo(savingsBalance);
+            assertThat(checking.getBalanceMinor()).isEqualTo(100_00);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Every value falls inside the bounds of its bucket")
+    void bucketOf_anyValue_isWithinBucketBounds() {
+        // Arrange
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+
+        for (long value : values) {
+            // Act
+            int bucket = LatencyHistogram.bucketOf(value);
+
+            // Assert
+            assertThat(LatencyHistogram.lowestValueIn(bucket)).isLessThanOrEqualTo(value);
+            assertThat(LatencyHistogram.highestValueIn(bucket)).isGreaterThanOrEqualTo(value);
+        }
+    }
+
+    @Test
+    @DisplayName("Percentiles are reported within 12.5% of the recorded values")
+    void getPercentile_recordedValues_areWithinBucketPrecision() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // Act: 1..1000 ns, once each
+        for (long nanos = 1; nanos <= 1000; nanos++) {
+            histogram.record(nanos);
+        }
+
+        // Assert
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getMax()).isEqualTo(1000);
+        assertThat(histogram.getMean()).isEqualTo(500.5);
+        assertThat(histogram.getPercentile(0.5)).isBetween(500L, 563L);
+        assertThat(histogram.getPercentile(0.99)).isBetween(990L, 1000L);
+        assertThat(histogram.getPercentile(1.0)).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("An empty histogram reports zero")
+    void getPercentile_empty_returnsZero() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // Act & Assert
+        assertThat(histogram.getPercentile(0.99)).isZero();
+        assertThat(histogram.getMean()).isZero();
+    }
+
+    @Test
+    @DisplayName("Percentile outside 0..1 is rejected")
+    void getPercentile_outOfRange_throwsException() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // Act & Assert
+        assertThatThrownBy(() -> histogram.getPercentile(1.5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Percentile must be between 0 and 1.");
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LoadHarnessTest {
+
+    @TempDir
+    Path directory;
+
+    private final Workload workload = new Workload(20, 100, 0.5, 1.0, 0.5, 0.4, 0.1);
+
+    @Test
+    @DisplayName("At a target rate exactly the operations due within the run are sent, latency measured from when due")
+    void run_atTargetRate_sendsDueOperations() throws Exception {
+        // Arrange
+        LoadHarness harness = new LoadHarness(new Bank(), workload);
+
+        // Act
+        LoadHarness.Report report = harness.run(7, 4, 5_000, Duration.ofMillis(400));
+
+        // Assert
+        assertThat(report.getOperations()).isEqualTo(2_000); // Due every 200us for 400ms
+        assertThat(report.getDeclined()).isPositive();
+        assertThat(report.getLatencies().getCount()).isEqualTo(report.getServiceTimes().getCount());
+        assertThat(report.getLatencies().getMax()).isGreaterThanOrEqualTo(report.getServiceTimes().getMax());
+        assertThat(report.toString()).contains("2000 operations");
+    }
+
+    @Test
+    @DisplayName("Replaying a trace on the same population always leaves the same balances")
+    void replay_sameTrace_isDeterministic() throws Exception {
+        // Arrange
+        Path trace = directory.resolve("trace.csv");
+        workload.writeTrace(trace, 7, 5_000);
+        Bank first = new Bank();
+        Bank second = new Bank();
+
+        // Act
+        LoadHarness.Report firstReport = new LoadHarness(first, workload).replay(trace, 0);
+        LoadHarness.Report secondReport = new LoadHarness(second, workload).replay(trace, 0);
+
+        // Assert
+        assertThat(firstReport.getOperations()).isEqualTo(5_000);
+        assertThat(secondReport.getDeclined()).isEqualTo(firstReport.getDeclined());
+        assertThat(balances(second)).isEqualTo(balances(first));
+        Files.writeString(trace, "deposit,100,5\n");
+        assertThatIllegalArgumentException().isThrownBy(() -> new LoadHarness(new Bank(), workload).replay(trace, 0))
+                .withMessageContaining("Line 1 of");
+    }
+
+    // In the order the accounts were opened
+    private static List<Long> balances(Bank bank) {
+        List<Account> accounts = new ArrayList<>(bank.getAllAccounts());
+        accounts.sort(Comparator.comparingLong(Account::getNumber));
+        List<Long> balances = new ArrayList<>();
+        for (Account account : accounts) {
+            balances.add(account.getBalanceMinor());
+        }
+        return balances;
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    @DisplayName("Deposits, withdrawals and rejections are counted and timed")
+    void bankOperations_withRegistry_areCountedAndTimed() {
+        // Arrange
+        MetricsRegistry metrics = new MetricsRegistry();
+        Bank bank = new Bank(EventSink.NO_OP, metrics);
+        Customer customer = bank.addCustomer("Alice");
+        Account savings = bank.openSavingsAccount(customer, 100.0, 0.01);
+
+        // Act
+        savings.deposit(50.0);
+        savings.deposit(25.0);
+        assertThatCode(() -> savings.withdraw(75.0)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> savings.withdraw(1000.0)).isInstanceOf(InsufficientFundsException.class);
+
+        // Assert
+        assertThat(metrics.get(Operation.ADD_CUSTOMER).getCount()).isEqualTo(1);
+        assertThat(metrics.get(Operation.OPEN_ACCOUNT).getCount()).isEqualTo(1);
+        assertThat(metrics.get(Operation.DEPOSIT).getCount()).isEqualTo(2);
+        assertThat(metrics.get(Operation.DEPOSIT).getLatency().getCount()).isEqualTo(2);
+        OperationStats withdrawals = metrics.get(Operation.WITHDRAWAL);
+        assertThat(withdrawals.getCount()).isEqualTo(2);
+        assertThat(withdrawals.getRejectedCount()).isEqualTo(1);
+        assertThat(withdrawals.getRejectionRate()).isEqualTo(0.5);
+        assertThat(savings.getBalance()).isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("Transfers declined for insufficient funds count as rejections")
+    void transfer_insufficientFunds_isCountedAsRejected() throws InsufficientFundsException {
+        // Arrange
+        MetricsRegistry metrics = new MetricsRegistry();
+        Bank bank = new Bank(EventSink.NO_OP, metrics);
+        Customer customer = bank.addCustomer("Alice");
+        Account from = bank.openSavingsAccount(customer, 10.0, 0.01);
+        Account to = bank.openCheckingAccount(customer, 0.0, 0.0);
+
+        // Act
+        bank.transfer(from, to, 5.0);
+        assertThatThrownBy(() -> bank.transfer(from, to, 50.0)).isInstanceOf(InsufficientFundsException.class);
+
+        // Assert
+        assertThat(metrics.get(Operation.TRANSFER).getCount()).isEqualTo(2);
+        assertThat(metrics.get(Operation.TRANSFER).getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Lookup misses are counted separately from hits")
+    void findAccountAndCustomer_misses_areCounted() {
+        // Arrange
+        MetricsRegistry metrics = new MetricsRegistry();
+        Bank bank = new Bank(EventSink.NO_OP, metrics);
+        Customer customer = bank.addCustomer("Alice");
+        Account account = bank.openCheckingAccount(customer, 0.0, 0.0);
+
+        // Act
+        bank.findAccount(account.getAccountNumber());
+        bank.findAccount("no-such-account");
+        bank.findAccount("no-such-account");
+        bank.findCustomer(customer.getId());
+
+        // Assert
+        assertThat(metrics.get(Operation.FIND_ACCOUNT).getCount()).isEqualTo(3);
+        assertThat(metrics.get(Operation.FIND_ACCOUNT).getRejectedCount()).isEqualTo(2);
+        assertThat(metrics.get(Operation.FIND_ACCOUNT).getLatency().getCount()).isZero();
+        assertThat(metrics.get(Operation.FIND_CUSTOMER).getRejectedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Registry is published and removed over JMX")
+    void registerMBeans_thenUnregister_exposesOperationStats() throws Exception {
+        // Arrange
+        MetricsRegistry metrics = new MetricsRegistry();
+        Bank bank = new Bank(EventSink.NO_OP, metrics);
+        bank.addCustomer("Alice");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.example:type=BankMetrics,bank=\"test\",operation=ADD_CUSTOMER");
+
+        // Act
+        metrics.registerMBeans("test");
+        Object count = server.getAttribute(name, "Count");
+        metrics.unregisterMBeans("test");
+
+        // Assert
+        assertThat(count).isEqualTo(1L);
+        assertThat(server.isRegistered(name)).isFalse();
+    }
+}
@@ -0,0 +1,39 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    @DisplayName("Converting to minor units is exact for decimal amounts")
+    void toMinor_decimalAmounts_convertsExactly() {
+        assertThat(Money.toMinor(150.1)).isEqualTo(15010L);
+        assertThat(Money.toMinor(0.29)).isEqualTo(29L);
+        assertThat(Money.toMinor(-30.0)).isEqualTo(-3000L);
+        assertThat(Money.toMajor(15010L)).isEqualTo(150.1);
+    }
+
+    @Test
+    @DisplayName("Converting a non-finite amount throws exception")
+    void toMinor_notFinite_throwsException() {
+        assertThatIllegalArgumentException().isThrownBy(() -> {
+            Money.toMinor(Double.NaN);
+        }).withMessage("Amount must be a finite number.");
+    }
+
+    @Test
+    @DisplayName("Interest on large balances does not overflow")
+    void interest_largeBalance_isExact() {
+        // Arrange: 90 trillion in cents at 5%
+        long balance = 9_000_000_000_000_000L;
+
+        // Act
+        long interest = Money.interest(balance, Money.toRate(0.05));
+
+        // Assert
+        assertThat(interest).isEqualTo(450_000_000_000_000L);
+    }
+}
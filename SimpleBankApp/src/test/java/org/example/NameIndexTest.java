@@ -0,0 +1,107 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class NameIndexTest {
+
+    private Bank bank;
+    private Customer johnSmith;
+    private Customer janeSmithers;
+    private Customer jose;
+
+    @BeforeEach
+    void setUp() {
+        bank = new Bank();
+        johnSmith = bank.addCustomer("John Smith");
+        janeSmithers = bank.addCustomer("Jane Smithers");
+        jose = bank.addCustomer("José O'Neil");
+    }
+
+    @Test
+    @DisplayName("Prefixes match case- and accent-insensitively, exact words first")
+    void searchCustomers_prefix_ranksExactFirst() {
+        // Act & Assert
+        assertThat(bank.searchCustomers("SMITH", 10)).containsExactly(johnSmith, janeSmithers);
+        assertThat(bank.searchCustomers("jose", 10)).containsExactly(jose);
+        assertThat(bank.searchCustomers("o'ne", 10)).containsExactly(jose);
+        assertThat(bank.searchCustomers("smith", 1)).containsExactly(johnSmith);
+        assertThat(bank.searchCustomers("  ", 10)).isEmpty();
+        assertThatIllegalArgumentException().isThrownBy(() -> bank.searchCustomers("smith", 0))
+                .withMessage("Limit must be positive.");
+    }
+
+    @Test
+    @DisplayName("Every query word must match, and one typo per longer word is tolerated")
+    void searchCustomers_typosAndSeveralWords_match() {
+        // Act & Assert
+        assertThat(bank.searchCustomers("jonh", 10)).containsExactly(johnSmith); // Swapped letters
+        assertThat(bank.searchCustomers("smiht jhon", 10)).containsExactly(johnSmith); // Typos match whole words
+        assertThat(bank.searchCustomers("smyth", 10)).containsExactly(johnSmith); // Wrong letter
+        assertThat(bank.searchCustomers("jo smi", 10)).containsExactly(johnSmith); // Only John has both words
+        assertThat(bank.searchCustomers("jo", 10)).containsExactly(johnSmith, jose); // Equal matches in name order
+        assertThat(bank.searchCustomers("jon", 10)).isEmpty(); // Not a prefix of john, and too short for typos
+        assertThat(bank.searchCustomers("smith xavier", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Renamed customers are found by their new name only")
+    void setName_updatesIndex() {
+        // Act
+        johnSmith.setName("Johnny Walker");
+
+        // Assert
+        assertThat(bank.searchCustomers("walker", 10)).containsExactly(johnSmith);
+        assertThat(bank.searchCustomers("smith", 10)).containsExactly(janeSmithers);
+        assertThat(bank.searchCustomers("john", 10)).containsExactly(johnSmith); // Prefix of johnny
+    }
+
+    @Test
+    @DisplayName("Customers added and renamed from many threads at once are all indexed under their final names")
+    void addCustomer_concurrently_indexesEveryone() throws InterruptedException {
+        // Arrange
+        Thread[] threads = new Thread[8];
+        Customer[][] added = new Customer[threads.length][200];
+
+        // Act: every thread adds to the same few words, and renames half its customers away from them
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < added[thread].length; i++) {
+                    added[thread][i] = bank.addCustomer("Parallel Walker " + thread + "x" + i);
+                    if (i % 2 == 1) {
+                        added[thread][i].setName("Renamed Runner " + thread + "x" + i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertThat(bank.searchCustomers("parallel walker", 10_000)).hasSize(threads.length * 100);
+        assertThat(bank.searchCustomers("renamed", 10_000)).hasSize(threads.length * 100);
+        assertThat(bank.searchCustomers("walker 3x7", 100)).isNotEmpty().doesNotContain(added[3][7]);
+        assertThat(bank.searchCustomers("runner 3x7", 100)).contains(added[3][7]); // Also 3x71 and up, by prefix
+    }
+
+    @Test
+    @DisplayName("One edit means one insertion, deletion, substitution or swap")
+    void withinOneEdit_recognisesSingleEdits() {
+        // Act & Assert
+        assertThat(NameIndex.withinOneEdit("smith", "smith")).isTrue();
+        assertThat(NameIndex.withinOneEdit("smith", "smth")).isTrue();
+        assertThat(NameIndex.withinOneEdit("smith", "smiith")).isTrue();
+        assertThat(NameIndex.withinOneEdit("smith", "smyth")).isTrue();
+        assertThat(NameIndex.withinOneEdit("smith", "msith")).isTrue();
+        assertThat(NameIndex.withinOneEdit("smith", "smiht")).isTrue();
+        assertThat(NameIndex.withinOneEdit("smith", "smoth1")).isFalse();
+        assertThat(NameIndex.withinOneEdit("smith", "msiht")).isFalse();
+        assertThat(NameIndex.withinOneEdit("smith", "sm")).isFalse();
+    }
+}
@@ -4,6 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.*;
 
 class SavingsAccountTest {
@@ -70,6 +74,20 @@ class SavingsAccountTest {
         assertThat(account.getBalance()).isEqualTo(100.0);
     }
 
+    @Test
+    @DisplayName("tryWithdraw more than balance is declined without throwing")
+    void tryWithdraw_amountExceedingBalance_isDeclined() {
+        // Act
+        DebitResult result = account.tryWithdraw(150.0);
+
+        // Assert
+        assertThat(result).isEqualTo(DebitResult.insufficientFunds(10_000));
+        assertThat(result.isApproved()).isFalse();
+        assertThat(result.getAvailableFunds()).isEqualTo(100.0);
+        assertThat(account.getBalance()).isEqualTo(100.0);
+        assertThat(account.getAvailableFunds()).isEqualTo(100.0);
+    }
+
     @Test
     @DisplayName("Withdraw negative amount throws IllegalArgumentException")
     void withdraw_negativeAmount_throwsIllegalArgumentException() {
@@ -95,7 +113,8 @@ class SavingsAccountTest {
         account.applyInterest();
 
         // Assert
-        assertThat(account.getBalance()).isEqualTo(expectedBalance, within(0.001)); // Use offset for floating point comparison
+        assertThat(account.getBalance()).isEqualTo(expectedBalance); // Exact: money is fixed-point
+        assertThat(account.getBalanceMinor()).isEqualTo(10100L);
     }
 
     @Test
@@ -105,4 +124,37 @@ class SavingsAccountTest {
             new SavingsAccount(testCustomer, 100.0, -0.01);
         }).withMessage("Interest rate cannot be negative.");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Concurrent deposits are never lost")
+    void deposit_concurrently_noLostUpdates() throws InterruptedException {
+        // Arrange
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> account.deposit(1.0));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Assert
+        assertThat(account.getBalance()).isEqualTo(1100.0);
+    }
+
+    @Test
+    @DisplayName("Apply interest rounds half-even to the nearest cent")
+    void applyInterest_fractionalCent_roundsHalfEven() {
+        // Arrange: 1% of 0.50 is exactly half a cent, 1% of 1.50 is one and a half cents
+        SavingsAccount half = new SavingsAccount(testCustomer, 0.50, 0.01);
+        SavingsAccount oneAndHalf = new SavingsAccount(testCustomer, 1.50, 0.01);
+
+        // Act
+        half.applyInterest();
+        oneAndHalf.applyInterest();
+
+        // Assert
+        assertThat(half.getBalanceMinor()).isEqualTo(50L); // Rounded down to the even cent
+        assertThat(oneAndHalf.getBalanceMinor()).isEqualTo(152L); // Rounded up to the even cent
+    }
+}
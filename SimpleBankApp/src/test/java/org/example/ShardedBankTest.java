@@ -0,0 +1,134 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ShardedBankTest {
+
+    private Bank bank;
+    private ShardedBank sharded;
+    private Customer alice;
+
+    @BeforeEach
+    void setUp() {
+        bank = new Bank();
+        sharded = new ShardedBank(bank, 4, 64);
+        alice = bank.addCustomer("Alice");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sharded.close();
+    }
+
+    @Test
+    @DisplayName("Operations complete with the same results applyBatch gives")
+    void submit_operations_completeWithResults() throws Exception {
+        // Arrange
+        Account account = bank.openCheckingAccount(alice, 100.0, 0.0);
+        String number = account.getAccountNumber();
+
+        // Act
+        CompletableFuture<BatchResult> deposit = sharded.deposit(number, 5_000);
+        CompletableFuture<BatchResult> withdrawal = sharded.withdraw(number, 20_000);
+        CompletableFuture<BatchResult> smallWithdrawal = sharded.withdraw(number, 1);
+        CompletableFuture<BatchResult> unknown = sharded.deposit("999999999", 100);
+        CompletableFuture<BatchResult> invalid = sharded.deposit(number, 0);
+
+        // Assert
+        assertThat(deposit.get(5, TimeUnit.SECONDS)).isEqualTo(BatchResult.SUCCESS);
+        assertThat(withdrawal.get(5, TimeUnit.SECONDS)).isEqualTo(BatchResult.INSUFFICIENT_FUNDS);
+        assertThat(smallWithdrawal.get(5, TimeUnit.SECONDS)).isEqualTo(BatchResult.SUCCESS);
+        assertThat(unknown.get(5, TimeUnit.SECONDS)).isEqualTo(BatchResult.UNKNOWN_ACCOUNT);
+        assertThat(invalid.get(5, TimeUnit.SECONDS)).isEqualTo(BatchResult.INVALID_OPERATION);
+        assertThat(account.getBalanceMinor()).isEqualTo(14_999);
+    }
+
+    @Test
+    @DisplayName("Accounts are spread over every shard")
+    void shardOf_sequentialNumbers_usesAllShards() {
+        // Arrange
+        boolean[] used = new boolean[sharded.getShardCount()];
+
+        // Act
+        for (int i = 0; i < 64; i++) {
+            used[sharded.shardOf(bank.openCheckingAccount(alice, 0.0, 0.0).getAccountNumber())] = true;
+        }
+
+        // Assert
+        assertThat(used).containsOnly(true);
+        assertThat(sharded.shardOf("not-a-number")).isZero();
+    }
+
+    @Test
+    @DisplayName("Concurrent transfers across shards neither deadlock nor lose money")
+    void transfer_concurrentAcrossShards_conservesTotal() throws Exception {
+        // Arrange
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            numbers.add(bank.openCheckingAccount(alice, 100.0, 0.0).getAccountNumber());
+        }
+        List<CompletableFuture<BatchResult>> results = new ArrayList<>();
+        List<Thread> callers = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            Thread caller = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2000; i++) {
+                    String from = numbers.get(random.nextInt(numbers.size()));
+                    String to = numbers.get(random.nextInt(numbers.size()));
+                    CompletableFuture<BatchResult> result = sharded.transfer(from, to, 1 + random.nextInt(500));
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            });
+            callers.add(caller);
+            caller.start();
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        // Assert
+        long total = 0;
+        for (Account account : bank.getAllAccounts()) {
+            total += account.getBalanceMinor();
+            assertThat(account.getBalanceMinor()).isNotNegative();
+        }
+        assertThat(total).isEqualTo(50 * 10_000L);
+        assertThat(results).hasSize(16_000);
+    }
+
+    @Test
+    @DisplayName("Closing applies queued operations and then refuses new ones")
+    void close_drainsQueueThenRejects() throws Exception {
+        // Arrange
+        Account account = bank.openSavingsAccount(alice, 0.0, 0.01);
+        List<CompletableFuture<BatchResult>> deposits = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            deposits.add(sharded.deposit(account.getAccountNumber(), 100));
+        }
+
+        // Act
+        sharded.close();
+
+        // Assert
+        assertThat(deposits).allSatisfy(deposit -> assertThat(deposit).isCompletedWithValue(BatchResult.SUCCESS));
+        assertThat(account.getBalanceMinor()).isEqualTo(5_000);
+        assertThatIllegalStateException().isThrownBy(() -> sharded.deposit(account.getAccountNumber(), 100))
+                .withMessage("Sharded bank is closed.");
+    }
+}
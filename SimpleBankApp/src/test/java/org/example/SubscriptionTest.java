@@ -0,0 +1,138 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SubscriptionTest {
+
+    @Test
+    @DisplayName("Every change reaches the subscriber in order per account, for both storages, even through a small ring")
+    void subscribe_concurrentChanges_deliversEachAccountInOrder() throws InterruptedException {
+        for (AccountStorage storage : AccountStorage.values()) {
+            // Arrange
+            Bank bank = new Bank(EventSink.NO_OP, Metrics.NO_OP, storage);
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                accounts.add(bank.openCheckingAccount(bank.addCustomer("Customer " + i), 100.0, 100.0));
+            }
+            Map<Long, List<long[]>> received = new HashMap<>(); // Only touched by the subscription's thread
+            AtomicLong batches = new AtomicLong();
+            Subscription subscription = bank.subscribe((accountNumber, delta, balance, sequence, endOfBatch) -> {
+                received.computeIfAbsent(accountNumber, number -> new ArrayList<>()).add(new long[] {delta, balance, sequence});
+                if (endOfBatch) {
+                    batches.incrementAndGet();
+                }
+            }, 16, AsyncEventSink.OverflowPolicy.BLOCK);
+            Thread[] threads = new Thread[4];
+
+            // Act
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 2_000; i++) {
+                        Account from = accounts.get(random.nextInt(accounts.size()));
+                        Account to = accounts.get(random.nextInt(accounts.size()));
+                        if (from == to) {
+                            from.depositMinor(1 + random.nextInt(500));
+                        } else {
+                            bank.tryTransferMinor(from, to, 1 + random.nextInt(500));
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            subscription.close();
+
+            // Assert
+            assertThat(subscription.getDroppedCount()).isZero();
+            assertThat(batches.get()).isPositive();
+            for (Account account : accounts) {
+                List<long[]> changes = received.getOrDefault(account.getNumber(), List.of());
+                long balance = 10_000;
+                for (int i = 0; i < changes.size(); i++) {
+                    long[] change = changes.get(i);
+                    assertThat(change[2]).isEqualTo(i + 1); // No gaps, no reordering
+                    balance += change[0];
+                    assertThat(change[1]).isEqualTo(balance);
+                }
+                assertThat(balance).isEqualTo(account.getBalanceMinor());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A listener throwing an Error loses only that change, and BLOCK writers keep going")
+    void subscribe_listenerThrowsError_keepsDelivering() throws InterruptedException {
+        // Arrange
+        Bank bank = new Bank();
+        Account account = bank.openSavingsAccount(bank.addCustomer("Alice"), 0.0, 0.01);
+        List<Long> sequences = new ArrayList<>();
+        Subscription subscription = bank.subscribe((accountNumber, delta, balance, sequence, endOfBatch) -> {
+            if (sequence % 2 == 0) {
+                throw new AssertionError("Listener bug");
+            }
+            sequences.add(sequence);
+        }, 2, AsyncEventSink.OverflowPolicy.BLOCK);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                account.depositMinor(1); // Would wedge on the full ring if the deliverer had died
+            }
+        });
+
+        // Act
+        writer.start();
+        writer.join(10_000);
+        boolean writerFinished = !writer.isAlive();
+        subscription.close();
+
+        // Assert
+        assertThat(writerFinished).isTrue();
+        assertThat(subscription.getDroppedCount()).isEqualTo(50);
+        assertThat(sequences).hasSize(50).isSorted();
+    }
+
+    @Test
+    @DisplayName("A DROP subscriber that falls behind never holds up writers, and closing stops delivery")
+    void subscribe_stalledDropSubscriber_dropsInsteadOfBlocking() throws InterruptedException {
+        // Arrange
+        Bank bank = new Bank();
+        Account account = bank.openSavingsAccount(bank.addCustomer("Alice"), 0.0, 0.01);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> sequences = new ArrayList<>();
+        Subscription subscription = bank.subscribe((accountNumber, delta, balance, sequence, endOfBatch) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sequences.add(sequence);
+        }, 4, AsyncEventSink.OverflowPolicy.DROP);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            account.depositMinor(1); // Would hang here if the full ring blocked writers
+        }
+        release.countDown();
+        subscription.close();
+        account.depositMinor(1); // After close: not delivered
+
+        // Assert
+        assertThat(sequences.size() + subscription.getDroppedCount()).isEqualTo(100);
+        assertThat(sequences).hasSizeLessThanOrEqualTo(5).isSorted();
+        assertThatIllegalArgumentException().isThrownBy(() -> bank.subscribe((a, d, b, s, e) -> { }, 3, AsyncEventSink.OverflowPolicy.DROP))
+                .withMessage("Capacity must be a power of two.");
+    }
+}
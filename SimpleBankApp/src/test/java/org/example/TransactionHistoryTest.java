@@ -0,0 +1,192 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TransactionHistoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Statement lists an account's transactions newest first with running balances")
+    void page_afterOperations_returnsNewestFirst() throws InsufficientFundsException {
+        // Arrange
+        TransactionHistory history = new TransactionHistory(16);
+        Bank bank = new Bank(history);
+        Customer alice = bank.addCustomer("Alice");
+        Account checking = bank.openCheckingAccount(alice, 100.0, 0.0);
+        Account savings = bank.openSavingsAccount(alice, 0.0, 0.01);
+
+        // Act
+        checking.deposit(50.0);
+        checking.withdraw(30.0);
+        bank.transfer(checking, savings, 20.0);
+        List<Transaction> statement = history.page(checking.getAccountNumber(), Long.MAX_VALUE, 10);
+
+        // Assert
+        assertThat(statement).extracting(Transaction::getType).containsExactly(
+                EventType.TRANSFER_OUT, EventType.WITHDRAWAL, EventType.DEPOSIT, EventType.CHECKING_OPENED);
+        assertThat(statement).extracting(Transaction::getSequence).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(statement).extracting(Transaction::getBalance).containsExactly(100.0, 120.0, 150.0, 100.0);
+        assertThat(history.page(savings.getAccountNumber(), Long.MAX_VALUE, 10))
+                .extracting(Transaction::getType).containsExactly(EventType.TRANSFER_IN, EventType.SAVINGS_OPENED);
+        assertThat(history.getTransactionCount(alice.getId())).isZero(); // Customers have no statement
+    }
+
+    @Test
+    @DisplayName("Without a directory only the most recent entries are kept")
+    void page_memoryOnly_dropsOldestBeyondCapacity() {
+        // Arrange
+        TransactionHistory history = new TransactionHistory(3);
+        Bank bank = new Bank(history);
+        Account account = bank.openCheckingAccount(bank.addCustomer("Alice"), 0.0, 0.0);
+
+        // Act
+        for (int i = 1; i <= 10; i++) {
+            account.deposit(i);
+        }
+
+        // Assert
+        assertThat(history.getTransactionCount(account.getAccountNumber())).isEqualTo(11);
+        assertThat(history.page(account.getAccountNumber(), Long.MAX_VALUE, 100))
+                .extracting(Transaction::getAmount).containsExactly(10.0, 9.0, 8.0);
+    }
+
+    @Test
+    @DisplayName("Entries evicted from memory are read back from disk segments, page by page")
+    void page_withSpilling_walksWholeHistory() throws Exception {
+        // Arrange: small segments, so records spread over many files
+        List<Double> amounts = new ArrayList<>();
+        try (TransactionHistory history = new TransactionHistory(4, directory, 400, Integer.MAX_VALUE)) {
+            Bank bank = new Bank(history);
+            Customer alice = bank.addCustomer("Alice");
+            Account first = bank.openCheckingAccount(alice, 0.0, 0.0);
+            Account second = bank.openCheckingAccount(alice, 0.0, 0.0);
+            for (int i = 1; i <= 100; i++) {
+                first.deposit(i);
+                second.deposit(1000 + i); // Interleaves the two accounts' records
+            }
+
+            // Act
+            long before = Long.MAX_VALUE;
+            List<Transaction> page;
+            while (!(page = history.page(first.getAccountNumber(), before, 7)).isEmpty()) {
+                for (Transaction transaction : page) {
+                    amounts.add(transaction.getAmount());
+                }
+                before = page.get(page.size() - 1).getSequence();
+            }
+        }
+
+        // Assert
+        assertThat(amounts).hasSize(101);
+        for (int i = 0; i < 100; i++) {
+            assertThat(amounts.get(i)).isEqualTo(100.0 - i);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Streaming stops as soon as the visitor declines")
+    void forEach_visitorReturnsFalse_stops() throws Exception {
+        // Arrange
+        try (TransactionHistory history = new TransactionHistory(2, directory)) {
+            Bank bank = new Bank(history);
+            Account account = bank.openCheckingAccount(bank.addCustomer("Alice"), 0.0, 0.0);
+            for (int i = 1; i <= 20; i++) {
+                account.deposit(i);
+            }
+            List<Long> sequences = new ArrayList<>();
+
+            // Act
+            long visited = history.forEach(account.getAccountNumber(), 15, (sequence, type, amountMinor, balanceMinor, timestampMillis) -> {
+                sequences.add(sequence);
+                return sequences.size() < 5;
+            });
+
+            // Assert
+            assertThat(visited).isEqualTo(5);
+            assertThat(sequences).containsExactly(14L, 13L, 12L, 11L, 10L);
+        }
+    }
+
+    @Test
+    @DisplayName("Statements end where the oldest retained segment was deleted")
+    void page_withRetention_endsAtOldestSegment() throws Exception {
+        // Arrange: one record per segment, two segments kept
+        try (TransactionHistory history = new TransactionHistory(1, directory, 40, 2)) {
+            Bank bank = new Bank(history);
+            Account account = bank.openCheckingAccount(bank.addCustomer("Alice"), 0.0, 0.0);
+            for (int i = 1; i <= 10; i++) {
+                account.deposit(i);
+            }
+
+            // Act
+            List<Transaction> statement = history.page(account.getAccountNumber(), Long.MAX_VALUE, 100);
+
+            // Assert: one entry in memory and two on disk
+            assertThat(statement).extracting(Transaction::getSequence).containsExactly(11L, 10L, 9L);
+        }
+        try (Stream<Path> files = Files.list(directory)) { // Once closed, everything spilled is written
+            assertThat(files.count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Accounts spilling from many threads at once each keep their whole history")
+    void page_concurrentSpilling_keepsEveryAccountsHistory() throws Exception {
+        // Arrange: a tiny ring and small segments, so nearly every deposit spills and buffers fill often
+        int accountsCount = 40;
+        int deposits = 500;
+        try (TransactionHistory history = new TransactionHistory(2, directory, 4_000, Integer.MAX_VALUE)) {
+            Bank bank = new Bank(history);
+            Customer alice = bank.addCustomer("Alice");
+            List<Account> accounts = new ArrayList<>();
+            for (int i = 0; i < accountsCount; i++) {
+                accounts.add(bank.openCheckingAccount(alice, 0.0, 0.0));
+            }
+            Thread[] threads = new Thread[8];
+
+            // Act
+            for (int t = 0; t < threads.length; t++) {
+                int first = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = first; i < accountsCount; i += threads.length) {
+                        for (int d = 1; d <= deposits; d++) {
+                            accounts.get(i).depositMinor(d);
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // Assert
+            for (Account account : accounts) {
+                List<Long> amounts = new ArrayList<>();
+                history.forEach(account.getAccountNumber(), Long.MAX_VALUE, (sequence, type, amountMinor, balanceMinor, timestampMillis) -> {
+                    amounts.add(amountMinor);
+                    return true;
+                });
+                assertThat(amounts).hasSize(deposits + 1);
+                for (int d = 0; d < deposits; d++) {
+                    assertThat(amounts.get(d)).isEqualTo(deposits - d);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class WorkloadTest {
+
+    @Test
+    @DisplayName("Operations follow the configured mix and Zipf-skewed popularity, the same for the same seed")
+    void step_manyOperations_followConfiguredShares() {
+        // Arrange
+        Workload workload = new Workload(10, 1000, 0.5, 1.0, 0.6, 0.3, 0.5);
+        int operations = 100_000;
+        Map<Workload.Kind, Integer> kinds = new EnumMap<>(Workload.Kind.class);
+        int[] hits = new int[1000];
+        int declines = 0;
+
+        // Act
+        for (int i = 0; i < operations; i++) {
+            Workload.Step step = workload.step(42, i);
+            kinds.merge(step.getKind(), 1, Integer::sum);
+            hits[step.getAccount()]++;
+            if (step.getAmountMinor() == Workload.DECLINED_AMOUNT_MINOR) {
+                declines++;
+            }
+        }
+
+        // Assert
+        assertThat(kinds.get(Workload.Kind.DEPOSIT) / (double) operations).isCloseTo(0.6, within(0.01));
+        assertThat(kinds.get(Workload.Kind.WITHDRAWAL) / (double) operations).isCloseTo(0.3, within(0.01));
+        assertThat(kinds.get(Workload.Kind.LOOKUP) / (double) operations).isCloseTo(0.1, within(0.01));
+        assertThat(declines / (double) kinds.get(Workload.Kind.WITHDRAWAL)).isCloseTo(0.5, within(0.02));
+        // With exponent 1 over 1000 accounts, rank 1 gets 1/H(1000) (about 13%) and rank 2 half that
+        assertThat(hits[0] / (double) operations).isCloseTo(0.134, within(0.01));
+        assertThat(hits[1] / (double) operations).isCloseTo(0.067, within(0.01));
+        assertThat(workload.step(42, 12345).toString()).isEqualTo(workload.step(42, 12345).toString());
+        assertThat(workload.step(43, 12345).toString()).isNotEqualTo(workload.step(42, 12345).toString());
+    }
+
+    @Test
+    @DisplayName("The population has the configured size and account mix, and invalid settings are refused")
+    void populate_addsConfiguredAccounts() {
+        // Arrange
+        Bank bank = new Bank();
+        Workload workload = new Workload(50, 2000, 0.25, 0.0, 0.5, 0.5, 0.0);
+
+        // Act
+        List<Account> accounts = workload.populate(bank);
+
+        // Assert
+        assertThat(accounts).hasSize(2000);
+        assertThat(bank.getAllCustomers()).hasSize(50);
+        long savings = accounts.stream().filter(account -> account instanceof SavingsAccount).count();
+        assertThat(savings / 2000.0).isCloseTo(0.25, within(0.03));
+        assertThat(bank.getAggregates().getTotalDepositsMinor()).isEqualTo(2000 * Workload.INITIAL_DEPOSIT_MINOR);
+        assertThat(Workload.Step.parse("deposit,1,0")).isNull();
+        assertThatIllegalArgumentException().isThrownBy(() -> new Workload(1, 1, 0.5, 1.0, 0.7, 0.4, 0.0))
+                .withMessage("Deposit and withdrawal shares cannot add up to more than 1.");
+        assertThatIllegalArgumentException().isThrownBy(() -> new Workload(1, 1, 1.5, 1.0, 0.5, 0.4, 0.0))
+                .withMessage("Shares must be between 0 and 1.");
+    }
+}